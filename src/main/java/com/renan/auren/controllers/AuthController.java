@@ -2,32 +2,50 @@ package com.renan.auren.controllers;
 
 import com.renan.auren.dtos.FirebaseLoginRequest;
 import com.renan.auren.dtos.LoginRequest;
+import com.renan.auren.infrastructure.ratelimit.RateLimiter;
+import com.renan.auren.infrastructure.security.TokenDigest;
 import com.renan.auren.services.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private RateLimiter rateLimiter;
+
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request)
-            throws Exception {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest request,
+                                                      HttpServletRequest httpRequest) {
+
+        // IP primeiro: tentativas recusadas pelo IP não consomem o balde do email, que é da vítima
+        rateLimiter.check(RateLimiter.Scope.LOGIN_IP, httpRequest.getRemoteAddr());
+        rateLimiter.check(RateLimiter.Scope.LOGIN_EMAIL, request.email());
 
-        return authService.login(request);
+        return authService.loginAsync(request);
     }
 
     @PostMapping("/firebase-login")
     public ResponseEntity<?> firebaseLogin(@RequestBody FirebaseLoginRequest request)
             throws Exception {
-        
-        System.out.println("=== Firebase Login Request ===");
-        System.out.println("Token recebido: " + (request.token() != null ? request.token().substring(0, Math.min(50, request.token().length())) + "..." : "NULL"));
-        System.out.println("Token vazio: " + (request.token() == null || request.token().isEmpty()));
+
+        // O fingerprint só é calculado se o nível DEBUG estiver ativo
+        log.atDebug()
+                .setMessage("Firebase login recebido: token={}")
+                .addArgument(() -> TokenDigest.fingerprint(request.token()))
+                .log();
 
         return authService.firebaseLogin(request);
     }
@@ -1,41 +1,156 @@
 package com.renan.auren.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.renan.auren.domain.entities.InventoryItem;
+import com.renan.auren.dtos.BulkRedeemRequest;
+import com.renan.auren.dtos.InventoryPage;
+import com.renan.auren.infrastructure.concurrent.Futures;
+import com.renan.auren.infrastructure.ratelimit.RateLimiter;
+import com.renan.auren.infrastructure.resilience.ServiceUnavailableException;
 import com.renan.auren.services.InventoryService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 
 @RestController
 @RequestMapping("/api/inventory")
 public class InventoryController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int STREAM_PAGE_SIZE = 200;
+    private static final int MAX_BULK_ENTRIES = 10_000;
+
     @Autowired
     private InventoryService inventoryService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
     @PostMapping("/redeem")
-    public ResponseEntity<?> redeemCode(@RequestBody Map<String, Object> request) 
-            throws ExecutionException, InterruptedException {
+    public CompletableFuture<ResponseEntity<?>> redeemCode(@RequestBody Map<String, Object> request,
+                                                          HttpServletRequest httpRequest) {
+        Long userId;
+        String redeemCode;
         try {
-            Long userId = Long.valueOf(request.get("userId").toString());
-            String redeemCode = request.get("redeemCode").toString();
-            
-            InventoryItem item = inventoryService.addItemToInventory(userId, redeemCode);
-            return ResponseEntity.ok(item);
+            userId = Long.valueOf(request.get("userId").toString());
+            redeemCode = request.get("redeemCode").toString();
         } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            return CompletableFuture.completedFuture(badRequest(e));
+        }
+
+        // Antes de qualquer leitura: cada palpite de código custa uma consulta ao Firestore.
+        // O balde do IP vem primeiro para que uma enxurrada de um só IP não esgote o balde do usuário
+        rateLimiter.check(RateLimiter.Scope.REDEEM_IP, httpRequest.getRemoteAddr());
+        rateLimiter.check(RateLimiter.Scope.REDEEM_USER, String.valueOf(userId));
+
+        return inventoryService.addItemToInventoryAsync(userId, redeemCode)
+                .<ResponseEntity<?>>thenApply(item -> ResponseEntity.ok(item))
+                .exceptionally(error -> {
+                    Throwable cause = Futures.unwrap(error);
+                    if (cause instanceof RuntimeException runtime && !(cause instanceof ServiceUnavailableException)) {
+                        return badRequest(runtime);
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    // Resgate em lote para importações de campanhas; o resultado de cada entrada vem na mesma ordem do pedido
+    @PostMapping("/redeem/bulk")
+    public CompletableFuture<ResponseEntity<?>> redeemBulk(@RequestBody BulkRedeemRequest request) {
+        if (request.entries() == null || request.entries().isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(Map.of("error", "Nenhuma entrada informada")));
+        }
+        if (request.entries().size() > MAX_BULK_ENTRIES) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(Map.of("error", "Máximo de " + MAX_BULK_ENTRIES + " entradas por requisição")));
         }
+
+        return inventoryService.redeemBulkAsync(request.entries())
+                .thenApply(ResponseEntity::ok);
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<InventoryItem>> getUserInventory(@PathVariable Long userId) 
-            throws ExecutionException, InterruptedException {
-        List<InventoryItem> inventory = inventoryService.getUserInventory(userId);
-        return ResponseEntity.ok(inventory);
+    public CompletableFuture<ResponseEntity<List<InventoryItem>>> getUserInventory(@PathVariable Long userId) {
+        return inventoryService.getUserInventoryAsync(userId)
+                .thenApply(ResponseEntity::ok);
     }
-}
 
+    // Paginação por cursor: passe o nextCursor da resposta anterior para obter a próxima página
+    @GetMapping("/user/{userId}/page")
+    public CompletableFuture<ResponseEntity<InventoryPage>> getUserInventoryPage(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return inventoryService.getUserInventoryPageAsync(userId, cursor, pageSize)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    // Inventário completo em NDJSON (um InventoryItem por linha), escrito página a página:
+    // a memória por requisição fica limitada a duas páginas, independente do tamanho do inventário
+    @GetMapping(value = "/user/{userId}/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamUserInventory(@PathVariable Long userId) {
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Cada item termina com '\n' escrito abaixo; sem o separador padrão (espaço) entre valores
+            generator.setRootValueSeparator(null);
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+            CompletableFuture<InventoryPage> next = inventoryService.getUserInventoryPageAsync(userId, null, STREAM_PAGE_SIZE);
+            while (next != null) {
+                InventoryPage page = awaitPage(next);
+
+                // Busca a próxima página enquanto a atual é serializada
+                next = page.nextCursor() != null
+                        ? inventoryService.getUserInventoryPageAsync(userId, page.nextCursor(), STREAM_PAGE_SIZE)
+                        : null;
+
+                for (InventoryItem item : page.items()) {
+                    writer.writeValue(generator, item);
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+            }
+            generator.close();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    private static InventoryPage awaitPage(CompletableFuture<InventoryPage> page) throws IOException {
+        try {
+            return Futures.await(page);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Leitura do inventário interrompida");
+        } catch (ExecutionException e) {
+            throw new IOException("Erro ao ler o inventário", e.getCause());
+        }
+    }
+
+    private static ResponseEntity<?> badRequest(RuntimeException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
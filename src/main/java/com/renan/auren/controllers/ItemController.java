@@ -1,13 +1,20 @@
 package com.renan.auren.controllers;
 
 import com.renan.auren.domain.entities.Item;
+import com.renan.auren.infrastructure.cache.CatalogSnapshot;
 import com.renan.auren.services.ItemService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/items")
@@ -16,17 +23,112 @@ public class ItemController {
     @Autowired
     private ItemService itemService;
 
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    // Catálogo servido a partir do snapshot pré-serializado; clientes que enviam o ETag recebem 304.
+    // JSON por padrão; CBOR ou Smile quando pedidos no Accept (os bytes binários já vêm prontos do snapshot).
     @GetMapping
-    public ResponseEntity<List<Item>> getAllItems() throws ExecutionException, InterruptedException {
-        List<Item> items = itemService.getAllItems();
-        return ResponseEntity.ok(items);
+    public CompletableFuture<ResponseEntity<byte[]>> getAllItems(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        MediaType binary = binaryFormat(accept);
+        String variant = binary == null ? null : binary.getSubtype();
+        boolean gzip = binary == null && acceptsGzip(acceptEncoding);
+        String representation = gzip ? CatalogSnapshot.Snapshot.GZIP : variant;
+
+        return catalogSnapshot.get().thenApply(snapshot -> {
+            if (snapshot.matches(ifNoneMatch, variant)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(snapshot.etag(representation))
+                        .cacheControl(CacheControl.noCache())
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                        .build();
+            }
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .eTag(snapshot.etag(representation))
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(binary != null ? binary : MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+
+            if (binary != null) {
+                return response.body(SMILE.equals(binary) ? snapshot.smile() : snapshot.cbor());
+            }
+            if (gzip) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+            }
+            return response.body(snapshot.json());
+        });
+    }
+
+    // Accept-Encoding com pesos (RFC 9110): "gzip" (ou "x-gzip") explícito vale mais que "*", e q=0 recusa
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+                    try {
+                        quality = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        Double effective = gzipQuality != null ? gzipQuality : wildcardQuality;
+        return effective != null && effective > 0;
+    }
+
+    // Só escolhe uma codificação binária se ela for pedida explicitamente e com prioridade sobre JSON
+    private static MediaType binaryFormat(String accept) {
+        if (accept == null) {
+            return null;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType mediaType : accepted) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (mediaType.isWildcardType() || mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            if (mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) {
+                return MediaType.APPLICATION_CBOR;
+            }
+            if (mediaType.equalsTypeAndSubtype(SMILE)) {
+                return SMILE;
+            }
+        }
+        return null;
     }
 
     @PostMapping
-    public ResponseEntity<Item> createItem(@RequestBody Item item) 
-            throws ExecutionException, InterruptedException {
-        Item created = itemService.createItem(item);
-        return ResponseEntity.ok(created);
+    public CompletableFuture<ResponseEntity<Item>> createItem(@RequestBody Item item) {
+        return itemService.createItemAsync(item)
+                .thenApply(ResponseEntity::ok);
     }
 }
-
@@ -1,38 +1,58 @@
 package com.renan.auren.controllers;
 
 import com.renan.auren.domain.entities.Item;
-import com.renan.auren.services.ItemService;
-import jakarta.annotation.PostConstruct;
+import com.renan.auren.dtos.CatalogImportReport;
+import com.renan.auren.services.CatalogImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 @RestController
 @RequestMapping("/api/seed")
 public class SeedController {
 
+    private static final Logger log = LoggerFactory.getLogger(SeedController.class);
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
+    // Itens padrão do catálogo; vazio enquanto o catálogo vem só da importação em massa
+    private static final List<Item> SEED_ITEMS = List.of();
+
     @Autowired
-    private ItemService itemService;
+    private CatalogImportService catalogImportService;
 
-    @PostConstruct
+    // Roda quando a aplicação já subiu (Firestore inicializado), sem thread própria nem espera fixa
+    @EventListener(ApplicationReadyEvent.class)
     public void initializeItems() {
-        new Thread(() -> {
-            try {
-                Thread.sleep(2000); // Aguarda o Firestore estar pronto
-                seedItems();
-                System.out.println("Itens inicializados com sucesso!");
-            } catch (Exception e) {
-                // Ignora erros na inicialização
-                System.err.println("Erro ao inicializar itens: " + e.getMessage());
-            }
-        }).start();
+        if (SEED_ITEMS.isEmpty()) {
+            log.debug("Nenhum item padrão para inicializar");
+            return;
+        }
+        try {
+            seedItems();
+            log.info("Itens inicializados com sucesso");
+        } catch (Exception e) {
+            // Ignora erros na inicialização
+            log.warn("Erro ao inicializar itens: {}", e.getMessage());
+        }
     }
 
     @GetMapping("/items")
@@ -42,27 +62,37 @@ public class SeedController {
 
     @PostMapping("/items")
     public ResponseEntity<String> seedItems() throws ExecutionException, InterruptedException {
-        List<Item> items = new ArrayList<>();
+        // Cópias: a importação normaliza o redeemCode e preenche o ID nos itens recebidos
+        List<Item> items = new ArrayList<>(SEED_ITEMS.size());
+        List<String> redeemCodes = new ArrayList<>(SEED_ITEMS.size());
+        for (Item item : SEED_ITEMS) {
+            items.add(new Item(null, item.getName(), item.getDescription(), item.getCategory(), item.getRarity(),
+                    item.getValue(), item.getIcon(), item.getRedeemCode(), item.getActive()));
+            redeemCodes.add(item.getRedeemCode());
+        }
 
-        int created = 0;
-        int skipped = 0;
-        for (Item item : items) {
-            try {
-                Item existing = itemService.getItemByRedeemCode(item.getRedeemCode());
-                if (existing == null) {
-                    itemService.createItem(item);
-                    created++;
-                } else {
-                    skipped++;
-                }
-            } catch (Exception e) {
-                System.err.println("Erro ao criar item " + item.getRedeemCode() + ": " + e.getMessage());
-            }
+        CatalogImportReport report = catalogImportService.importItems(items.iterator());
+
+        String message = String.format("Itens processados: %d criados, %d já existiam.",
+                report.created(), report.updated() + report.unchanged());
+        if (!redeemCodes.isEmpty()) {
+            message += " Use os códigos: " + String.join(", ", redeemCodes);
         }
-        
-        String message = String.format("Itens processados: %d criados, %d já existiam. Use os códigos: POCAO01, ESPADA01, MANA01, ESCUDO01, ARCO01, DRAGAO01, CAJADO01, INVIS01", 
-                created, skipped);
         return ResponseEntity.ok(message);
     }
-}
 
+    // Importação em massa do catálogo: array JSON, NDJSON ou CSV com cabeçalho, lidos em streaming
+    @PostMapping(value = "/items/import", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON, CSV})
+    public ResponseEntity<?> importItems(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                         InputStream body) throws ExecutionException, InterruptedException {
+        try {
+            CatalogImportReport report = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(CSV))
+                    ? catalogImportService.importCsv(body)
+                    : catalogImportService.importJson(body);
+            return ResponseEntity.ok(report);
+        } catch (IOException e) {
+            // Só o arquivo ilegível vira 400; falhas do Firestore seguem para o 503 do ServiceUnavailableHandler
+            return ResponseEntity.badRequest().body(Map.of("error", "Arquivo inválido: " + e.getMessage()));
+        }
+    }
+}
@@ -6,7 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/users")
@@ -16,23 +16,20 @@ public class UserController {
     private UserService userService;
 
     @PostMapping("/register")
-    public ResponseEntity<?> createUser(@RequestBody User user)
-            throws ExecutionException, InterruptedException {
-
-        User created = userService.createUser(user);
-        return ResponseEntity.ok(created);
+    public CompletableFuture<ResponseEntity<?>> createUser(@RequestBody User user) {
+        return userService.createUserAsync(user)
+                .thenApply(ResponseEntity::ok);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUserById(@PathVariable Long id)
-            throws ExecutionException, InterruptedException {
-
-        User user = userService.getUserById(id);
-
-        if (user == null) {
-            return ResponseEntity.status(404).body("Usuário não encontrado");
-        }
-
-        return ResponseEntity.ok(user);
+    public CompletableFuture<ResponseEntity<?>> getUserById(@PathVariable Long id) {
+        return userService.getUserByIdAsync(id)
+                .thenApply(user -> {
+                    if (user == null) {
+                        return ResponseEntity.status(404).body("Usuário não encontrado");
+                    }
+
+                    return ResponseEntity.ok(user);
+                });
     }
 }
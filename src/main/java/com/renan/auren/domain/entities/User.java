@@ -1,5 +1,6 @@
 package com.renan.auren.domain.entities;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -13,5 +14,7 @@ public class User {
     private Long id;
     private String nickname;
     private String email;
+    // Hash bcrypt: aceito no cadastro, nunca devolvido nas respostas. null para contas criadas pelo Firebase.
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
 }
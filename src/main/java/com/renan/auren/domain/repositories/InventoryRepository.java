@@ -0,0 +1,45 @@
+package com.renan.auren.domain.repositories;
+
+import com.renan.auren.domain.entities.InventoryItem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public interface InventoryRepository {
+
+    // O ID do documento é derivado de (userId, itemId), então cada usuário tem no máximo um documento por item
+    static String inventoryId(Long userId, String itemId) {
+        return userId + "_" + itemId;
+    }
+
+    CompletableFuture<List<InventoryItem>> findByUserId(Long userId);
+
+    // Página ordenada pelo ID do documento: até "limit" itens com ID maior que "afterId" (null = início)
+    CompletableFuture<List<InventoryItem>> findPageByUserId(Long userId, String afterId, int limit);
+
+    // true quando findPageByUserId custa uma leitura do inventário inteiro (layout agregado): quem pagina
+    // recorta a lista completa, que pode vir do cache, em vez de repetir a leitura a cada página
+    default boolean readsWholeInventory() {
+        return false;
+    }
+
+    // Cria o item no inventário ou soma "amount" à quantidade existente em uma única operação atômica.
+    // Na criação grava o acquiredAt do modelo; no incremento mantém o acquiredAt do primeiro resgate.
+    // Completa com o estado gravado, incluindo a quantidade resultante.
+    CompletableFuture<InventoryItem> increment(InventoryItem inventoryItem, long amount);
+
+    record Increment(InventoryItem inventoryItem, long amount) {
+    }
+
+    // Aplica vários incrementos em lotes, sem ler o estado resultante.
+    // Completa com os IDs (inventoryId) cujas escritas falharam e o erro de cada um; vazio se tudo foi gravado.
+    CompletableFuture<Map<String, Throwable>> incrementAll(List<Increment> increments);
+
+    // Chama "onChange" quando o inventário do usuário for alterado fora desta instância (ou o aviso falhar).
+    // Retorna a ação que cancela o acompanhamento. O padrão não acompanha nada.
+    default Runnable watch(Long userId, Runnable onChange) {
+        return () -> {
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.renan.auren.domain.repositories;
+
+import com.renan.auren.domain.entities.Item;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public interface ItemRepository {
+
+    // Busca o item ativo com o redeem code informado (já normalizado em maiúsculas)
+    CompletableFuture<Item> findActiveByRedeemCode(String redeemCode);
+
+    // Busca em lote os itens ativos dos redeem codes informados (já normalizados); códigos sem item ficam de fora do mapa
+    CompletableFuture<Map<String, Item>> findActiveByRedeemCodes(Collection<String> redeemCodes);
+
+    // Busca em lote pelos IDs (ativos ou não); IDs inexistentes ficam de fora do mapa
+    CompletableFuture<Map<String, Item>> findByIds(Collection<String> ids);
+
+    CompletableFuture<List<Item>> findAllActive();
+
+    // Todos os itens, inclusive inativos (usado para comparar importações com o catálogo atual)
+    CompletableFuture<List<Item>> findAll();
+
+    // Grava um novo item e preenche o ID gerado
+    CompletableFuture<Item> save(Item item);
+
+    // Abre um writer para gravações em massa do catálogo (importações)
+    CatalogWriter catalogWriter();
+
+    interface CatalogWriter {
+
+        // Enfileira a gravação: cria o item quando ele não tem ID, substitui o documento existente caso contrário
+        CompletableFuture<Item> save(Item item);
+
+        // Envia as gravações pendentes e libera o writer
+        CompletableFuture<Void> close();
+    }
+}
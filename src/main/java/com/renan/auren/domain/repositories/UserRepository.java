@@ -0,0 +1,20 @@
+package com.renan.auren.domain.repositories;
+
+import com.renan.auren.domain.entities.User;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface UserRepository {
+
+    CompletableFuture<User> findById(Long id);
+
+    CompletableFuture<User> findByEmail(String email);
+
+    // Apenas o ID do usuário dono do email (null se não existir), sem ler o documento do usuário
+    CompletableFuture<Long> findIdByEmail(String email);
+
+    CompletableFuture<Void> save(User user);
+
+    // Reserva um bloco de "count" IDs consecutivos e retorna o primeiro deles
+    CompletableFuture<Long> reserveIds(int count);
+}
@@ -0,0 +1,19 @@
+package com.renan.auren.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record BulkRedeemRequest(
+        @NotEmpty
+        List<Entry> entries
+) {
+    public record Entry(
+            @NotNull
+            Long userId,
+
+            @NotNull
+            String redeemCode
+    ) {}
+}
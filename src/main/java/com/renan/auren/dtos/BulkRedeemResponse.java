@@ -0,0 +1,24 @@
+package com.renan.auren.dtos;
+
+import java.util.List;
+
+// Resultado por entrada, na mesma ordem do pedido
+public record BulkRedeemResponse(
+        int redeemed,
+        int failed,
+        List<Result> results
+) {
+    public enum Status {
+        REDEEMED,
+        INVALID_CODE,
+        ERROR
+    }
+
+    public record Result(
+            Long userId,
+            String redeemCode,
+            Status status,
+            String itemId,
+            String error
+    ) {}
+}
@@ -0,0 +1,16 @@
+package com.renan.auren.dtos;
+
+import java.util.List;
+
+// Resultado de uma importação do catálogo; errors traz somente as primeiras falhas
+public record CatalogImportReport(
+        long read,
+        long created,
+        long updated,
+        long unchanged,
+        long skipped,
+        long failed,
+        long elapsedMillis,
+        double itemsPerSecond,
+        List<String> errors
+) {}
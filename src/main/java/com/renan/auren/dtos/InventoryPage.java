@@ -0,0 +1,11 @@
+package com.renan.auren.dtos;
+
+import com.renan.auren.domain.entities.InventoryItem;
+
+import java.util.List;
+
+// Página do inventário; nextCursor é null quando não há mais itens
+public record InventoryPage(
+        List<InventoryItem> items,
+        String nextCursor
+) {}
@@ -0,0 +1,156 @@
+package com.renan.auren.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renan.auren.domain.entities.Item;
+import com.renan.auren.domain.repositories.ItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+// Catálogo de itens ativos já serializado (JSON, JSON+gzip, CBOR e Smile) com um ETag derivado do conteúdo.
+// É reconstruído quando um item é criado/desativado (invalidate) ou quando passa de maxAge,
+// o que cobre alterações feitas por outras instâncias da aplicação.
+@Component
+public class CatalogSnapshot {
+
+    public record Snapshot(byte[] json, byte[] gzip, byte[] cbor, byte[] smile, String etag, long builtAt) {
+
+        public static final String GZIP = "gzip";
+
+        // Cada representação (JSON comprimido, CBOR, Smile) tem seu próprio ETag forte, para que caches e
+        // proxies nunca entreguem os bytes de uma para um cliente que pediu outra
+        public String etag(String variant) {
+            return variant == null ? etag : etag.substring(0, etag.length() - 1) + "-" + variant + "\"";
+        }
+
+        public boolean matches(String ifNoneMatch) {
+            return matches(ifNoneMatch, null);
+        }
+
+        // Compara com o header If-None-Match (lista de ETags, fracos ou não, ou "*"). Para o JSON, os ETags
+        // da versão sem compressão e da versão gzip valem ambos: o conteúdo é o mesmo.
+        public boolean matches(String ifNoneMatch, String variant) {
+            String etag = etag(variant);
+            String alternative = variant == null ? etag(GZIP) : etag;
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag) || tag.equals(alternative)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Reconstrução em andamento, compartilhada por todas as requisições que chegarem durante ela
+    private record Build(long generation, CompletableFuture<Snapshot> future) {
+    }
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Value("${auren.cache.catalog.max-age:60s}")
+    private Duration maxAge;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final AtomicReference<Build> building = new AtomicReference<>();
+
+    public CompletableFuture<Snapshot> get() {
+        Snapshot snapshot = current.get();
+        if (snapshot != null && System.currentTimeMillis() - snapshot.builtAt() < maxAge.toMillis()) {
+            return CompletableFuture.completedFuture(snapshot);
+        }
+        return rebuild();
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        current.set(null);
+    }
+
+    private CompletableFuture<Snapshot> rebuild() {
+        long gen = generation.get();
+        while (true) {
+            Build inFlight = building.get();
+            if (inFlight != null && inFlight.generation() == gen) {
+                return inFlight.future();
+            }
+
+            CompletableFuture<Snapshot> future = new CompletableFuture<>();
+            Build build = new Build(gen, future);
+            if (!building.compareAndSet(inFlight, build)) {
+                continue;
+            }
+
+            itemRepository.findAllActive()
+                    .thenApply(this::serialize)
+                    .whenComplete((snapshot, error) -> {
+                        building.compareAndSet(build, null);
+                        if (error != null) {
+                            future.completeExceptionally(error);
+                            return;
+                        }
+                        // Só publica se nenhum item mudou durante a reconstrução
+                        if (generation.get() == gen) {
+                            current.set(snapshot);
+                        }
+                        future.complete(snapshot);
+                    });
+            return future;
+        }
+    }
+
+    private Snapshot serialize(List<Item> items) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(items);
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            String etag = "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+
+            byte[] cbor = cborConverter.getObjectMapper().writeValueAsBytes(items);
+            byte[] smile = smileConverter.getObjectMapper().writeValueAsBytes(items);
+
+            return new Snapshot(json, compressed.toByteArray(), cbor, smile, etag, System.currentTimeMillis());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e);
+        }
+    }
+}
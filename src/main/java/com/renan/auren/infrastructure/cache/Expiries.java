@@ -0,0 +1,27 @@
+package com.renan.auren.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+// Políticas de expiração por entrada usadas pelos caches Caffeine da aplicação. Em todas o prazo é
+// recalculado a cada gravação e leituras não o renovam.
+public final class Expiries {
+
+    private Expiries() {
+    }
+
+    // Entradas positivas vivem "ttl"; as negativas (Optional.empty) só "negativeTtl", para que um valor
+    // criado logo depois de uma busca sem resultado apareça rápido
+    public static <K, V> Expiry<K, Optional<V>> negativeAware(Duration ttl, Duration negativeTtl) {
+        return Expiry.writing((key, value) -> value.isPresent() ? ttl : negativeTtl);
+    }
+
+    // Até um instante absoluto em epoch millis (ex.: o "exp" de um token); já vencidas expiram na hora
+    public static <K, V> Expiry<K, V> until(ToLongFunction<V> expiresAtMillis) {
+        return Expiry.writing((key, value) ->
+                Duration.ofMillis(Math.max(expiresAtMillis.applyAsLong(value) - System.currentTimeMillis(), 0)));
+    }
+}
@@ -0,0 +1,124 @@
+package com.renan.auren.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.renan.auren.domain.entities.InventoryItem;
+import com.renan.auren.domain.repositories.InventoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Inventário completo por usuário, já com os dados de exibição. Os resgates desta instância atualizam
+// a entrada no lugar; alterações feitas por outras instâncias aparecem após o TTL ou, com
+// auren.cache.inventory.listen=true, assim que o listener do Firestore avisar (a entrada é descartada).
+@Component
+public class InventoryCache {
+
+    // Cada entrada carrega o cancelamento do seu listener. As substituições (update, put sobre entrada viva)
+    // repassam o mesmo listener; ele só é cancelado quando a entrada sai do cache. Como o removalListener é
+    // assíncrono, um aviso atrasado de uma entrada antiga cancela só o listener dela, nunca o de uma entrada
+    // nova gravada depois de um invalidate.
+    private record Entry(List<InventoryItem> items, Runnable unwatch) {
+    }
+
+    private final Cache<Long, Entry> cache;
+    private final InventoryRepository inventoryRepository;
+    private final boolean listen;
+
+    // Contadores de escrita por faixa de usuários: uma leitura iniciada antes de uma escrita do mesmo
+    // usuário não grava o resultado (já desatualizado) no cache
+    private final WriteStamps writeStamps = new WriteStamps(64);
+
+    public InventoryCache(
+            InventoryRepository inventoryRepository,
+            @Value("${auren.cache.inventory.max-size:10000}") long maxSize,
+            @Value("${auren.cache.inventory.ttl:30s}") Duration ttl,
+            @Value("${auren.cache.inventory.listen:false}") boolean listen) {
+
+        this.inventoryRepository = inventoryRepository;
+        this.listen = listen;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .removalListener((Long userId, Entry entry, RemovalCause cause) -> {
+                    if (cause != RemovalCause.REPLACED && entry != null && entry.unwatch() != null) {
+                        entry.unwatch().run();
+                    }
+                })
+                .build();
+    }
+
+    // null quando o usuário não está no cache
+    public List<InventoryItem> get(Long userId) {
+        Entry entry = cache.getIfPresent(userId);
+        return entry != null ? entry.items() : null;
+    }
+
+    // Obtido antes de ler o inventário do banco e repassado para putIfUnchanged
+    public long stamp(Long userId) {
+        return writeStamps.get(userId);
+    }
+
+    public void putIfUnchanged(Long userId, List<InventoryItem> items, long stamp) {
+        if (!writeStamps.unchanged(userId, stamp)) {
+            return;
+        }
+        put(userId, items);
+        // Uma escrita entre a conferência e o put pode não ter encontrado a entrada (update só altera entradas
+        // existentes): confere de novo e, se houve escrita, descarta a lista gravada
+        if (!writeStamps.unchanged(userId, stamp)) {
+            cache.invalidate(userId);
+        }
+    }
+
+    public void put(Long userId, List<InventoryItem> items) {
+        List<InventoryItem> copy = List.copyOf(items);
+        if (!listen) {
+            cache.put(userId, new Entry(copy, null));
+            return;
+        }
+        // O listener é registrado fora da operação atômica da chave; se já havia entrada viva, ela mantém
+        // o dela e o novo é descartado
+        Runnable unwatch = inventoryRepository.watch(userId, () -> invalidate(userId));
+        Entry stored = cache.asMap().compute(userId, (key, current) ->
+                new Entry(copy, current != null ? current.unwatch() : unwatch));
+        if (stored.unwatch() != unwatch) {
+            unwatch.run();
+        }
+    }
+
+    // Write-through do resgate com o estado devolvido pelo engine (quantidade absoluta, nunca um delta): uma
+    // leitura que já viu a escrita e foi gravada antes deste update continua correta, sem contar duas vezes
+    public void update(InventoryItem stored) {
+        writeStamps.bump(stored.getUserId());
+        cache.asMap().computeIfPresent(stored.getUserId(), (userId, entry) -> {
+            List<InventoryItem> items = entry.items();
+            List<InventoryItem> updated = new ArrayList<>(items.size() + 1);
+            boolean replaced = false;
+            for (InventoryItem item : items) {
+                if (item.getItemId().equals(stored.getItemId())) {
+                    // A quantidade só cresce: resgates concorrentes podem chegar fora de ordem
+                    boolean older = item.getQuantity() != null && stored.getQuantity() != null
+                            && item.getQuantity() > stored.getQuantity();
+                    updated.add(older ? item : stored);
+                    replaced = true;
+                } else {
+                    updated.add(item);
+                }
+            }
+            if (!replaced) {
+                updated.add(stored);
+            }
+            return new Entry(List.copyOf(updated), entry.unwatch());
+        });
+    }
+
+    public void invalidate(Long userId) {
+        writeStamps.bump(userId);
+        cache.invalidate(userId);
+    }
+}
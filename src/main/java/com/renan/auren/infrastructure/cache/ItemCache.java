@@ -0,0 +1,50 @@
+package com.renan.auren.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.renan.auren.domain.entities.Item;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+// Cache do catálogo indexado pelo ID do item, usado para completar nome/descrição/ícone dos itens
+// de inventário que são gravados sem esses campos (layout agregado)
+@Component
+public class ItemCache {
+
+    private final Cache<String, Item> cache;
+
+    public ItemCache(
+            @Value("${auren.cache.items.max-size:10000}") long maxSize,
+            @Value("${auren.cache.items.ttl:10m}") Duration ttl) {
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // Somente os IDs presentes no cache
+    public Map<String, Item> getAll(Collection<String> ids) {
+        Map<String, Item> found = new HashMap<>();
+        for (String id : ids) {
+            Item item = cache.getIfPresent(id);
+            if (item != null) {
+                found.put(id, item);
+            }
+        }
+        return found;
+    }
+
+    public void putAll(Map<String, Item> items) {
+        cache.putAll(items);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
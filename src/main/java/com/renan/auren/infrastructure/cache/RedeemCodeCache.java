@@ -0,0 +1,67 @@
+package com.renan.auren.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.renan.auren.domain.entities.Item;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Cache em memória do catálogo indexado pelo redeem code (sempre em maiúsculas).
+// Códigos inválidos também são cacheados (Optional.empty) por um tempo menor,
+// para que tentativas repetidas não virem consultas no Firestore.
+@Component
+public class RedeemCodeCache {
+
+    private final Cache<String, Optional<Item>> cache;
+
+    // Uma busca que começou antes de um cadastro ou importação não grava de volta o resultado antigo
+    // (em especial a entrada negativa de um código que acabou de ser criado)
+    private final WriteStamps writeStamps = new WriteStamps(64);
+
+    public RedeemCodeCache(
+            @Value("${auren.cache.redeem-codes.max-size:10000}") long maxSize,
+            @Value("${auren.cache.redeem-codes.ttl:10m}") Duration ttl,
+            @Value("${auren.cache.redeem-codes.negative-ttl:30s}") Duration negativeTtl) {
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiries.<String, Item>negativeAware(ttl, negativeTtl))
+                .build();
+    }
+
+    public static String normalize(String redeemCode) {
+        return redeemCode.toUpperCase();
+    }
+
+    // Retorna null quando o código não está no cache; Optional.empty() quando é um código inválido conhecido
+    public Optional<Item> get(String redeemCode) {
+        return cache.getIfPresent(normalize(redeemCode));
+    }
+
+    // Obtido antes de consultar o banco e repassado para putIfUnchanged
+    public long stamp(String redeemCode) {
+        return writeStamps.get(normalize(redeemCode));
+    }
+
+    // A conferência roda dentro da operação atômica da chave: um invalidate que chegue depois dela
+    // espera a gravação e a remove
+    public void putIfUnchanged(String redeemCode, Item item, long stamp) {
+        String code = normalize(redeemCode);
+        cache.asMap().compute(code, (key, current) ->
+                writeStamps.unchanged(code, stamp) ? Optional.ofNullable(item) : current);
+    }
+
+    public void invalidate(String redeemCode) {
+        String code = normalize(redeemCode);
+        writeStamps.bump(code);
+        cache.invalidate(code);
+    }
+
+    public void invalidateAll() {
+        writeStamps.bumpAll();
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,57 @@
+package com.renan.auren.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Índice email -> userId em memória (LRU limitado) usado no login. Emails desconhecidos também são
+// cacheados (Optional.empty) por pouco tempo, para que tentativas repetidas não virem leituras no Firestore.
+@Component
+public class UserEmailIndex {
+
+    private final Cache<String, Optional<Long>> cache;
+
+    // Uma busca que começou antes de um cadastro não grava de volta a entrada negativa do email recém-criado
+    private final WriteStamps writeStamps = new WriteStamps(64);
+
+    public UserEmailIndex(
+            @Value("${auren.cache.user-emails.max-size:100000}") long maxSize,
+            @Value("${auren.cache.user-emails.ttl:1h}") Duration ttl,
+            @Value("${auren.cache.user-emails.negative-ttl:10s}") Duration negativeTtl) {
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiries.<String, Long>negativeAware(ttl, negativeTtl))
+                .build();
+    }
+
+    // Retorna null quando o email não está no cache; Optional.empty() quando é um email sabidamente sem usuário
+    public Optional<Long> get(String email) {
+        return cache.getIfPresent(email);
+    }
+
+    // Capturado antes de consultar o banco e conferido em putIfUnchanged
+    public long stamp(String email) {
+        return writeStamps.get(email);
+    }
+
+    public void put(String email, Long userId) {
+        writeStamps.bump(email);
+        cache.put(email, Optional.ofNullable(userId));
+    }
+
+    // Grava o resultado de uma busca só se nenhum put/invalidate do mesmo email aconteceu desde o stamp
+    public void putIfUnchanged(String email, Long userId, long stamp) {
+        cache.asMap().compute(email, (key, current) ->
+                writeStamps.unchanged(email, stamp) ? Optional.ofNullable(userId) : current);
+    }
+
+    public void invalidate(String email) {
+        writeStamps.bump(email);
+        cache.invalidate(email);
+    }
+}
@@ -0,0 +1,39 @@
+package com.renan.auren.infrastructure.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Contadores de escrita por faixa de chaves. Quem vai ao banco anota o contador da chave antes da leitura e
+// só grava o resultado no cache se nenhuma escrita (invalidação) da mesma faixa aconteceu nesse meio tempo;
+// assim uma leitura iniciada antes de uma escrita não devolve ao cache um valor já desatualizado.
+final class WriteStamps {
+
+    private final AtomicLongArray stamps;
+
+    // "stripes" precisa ser potência de 2
+    WriteStamps(int stripes) {
+        this.stamps = new AtomicLongArray(stripes);
+    }
+
+    long get(Object key) {
+        return stamps.get(stripe(key));
+    }
+
+    boolean unchanged(Object key, long stamp) {
+        return stamps.get(stripe(key)) == stamp;
+    }
+
+    void bump(Object key) {
+        stamps.incrementAndGet(stripe(key));
+    }
+
+    void bumpAll() {
+        for (int i = 0; i < stamps.length(); i++) {
+            stamps.incrementAndGet(i);
+        }
+    }
+
+    private int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (stamps.length() - 1);
+    }
+}
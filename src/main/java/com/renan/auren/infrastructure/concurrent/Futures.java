@@ -0,0 +1,70 @@
+package com.renan.auren.infrastructure.concurrent;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.renan.auren.infrastructure.logging.MdcPropagation;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+// Utilitários para compor as operações assíncronas do Firestore com CompletableFuture
+public final class Futures {
+
+    private Futures() {
+    }
+
+    // Adapta o ApiFuture do Firestore sem bloquear nenhuma thread. O callback roda na thread do cliente
+    // gRPC; o MDC de quem iniciou a operação é restaurado nela para que as continuações (que rodam
+    // dentro do complete) registrem logs com o correlationId da requisição.
+    public static <T> CompletableFuture<T> toCompletable(ApiFuture<T> apiFuture) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        ApiFutures.addCallback(apiFuture, new ApiFutureCallback<T>() {
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+        }, MdcPropagation.withCurrentContext(MoreExecutors.directExecutor()));
+        return future;
+    }
+
+    // Executa um passo síncrono transformando exceções em um futuro com falha
+    public static <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        try {
+            return CompletableFuture.completedFuture(supplier.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Espera o resultado para os chamadores síncronos. RuntimeExceptions da operação são relançadas
+    // como estão (mesmo comportamento da API síncrona); as demais continuam em ExecutionException.
+    public static <T> T await(CompletableFuture<T> future) throws ExecutionException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    // Remove os invólucros CompletionException/ExecutionException adicionados pela composição
+    public static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+}
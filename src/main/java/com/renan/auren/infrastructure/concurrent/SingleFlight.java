@@ -0,0 +1,43 @@
+package com.renan.auren.infrastructure.concurrent;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Agrupa leituras concorrentes da mesma chave: enquanto uma busca está em andamento, os demais chamadores
+// recebem o mesmo resultado em vez de disparar outra consulta. A chave sai do mapa assim que a busca termina,
+// então nada fica em cache aqui (isso é papel dos caches de cada serviço).
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            // Cópia: um chamador que cancele ou complete o seu futuro não afeta os outros
+            return existing.copy();
+        }
+
+        try {
+            loader.get().whenComplete((value, error) -> {
+                inFlight.remove(key, created);
+                if (error != null) {
+                    created.completeExceptionally(Futures.unwrap(error));
+                } else {
+                    created.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created.copy();
+    }
+
+    // Chamadores seguintes não reaproveitam a busca em andamento (ex.: ela começou antes de uma escrita)
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+}
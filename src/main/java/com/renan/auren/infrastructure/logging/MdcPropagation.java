@@ -0,0 +1,106 @@
+package com.renan.auren.infrastructure.logging;
+
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// O MDC é por thread: tarefas entregues a executores e continuações disparadas por threads do Firestore não
+// veem o correlationId da requisição. Estes utilitários capturam o MDC de quem agenda a tarefa e o restauram
+// na thread que a executa, devolvendo a thread com o MDC que ela tinha antes.
+public final class MdcPropagation {
+
+    private MdcPropagation() {
+    }
+
+    public static Runnable wrap(Runnable task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            restore(context);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            restore(context);
+            try {
+                return task.get();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            restore(context);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    // Decora um executor: cada tarefa roda com o MDC de quem a submeteu
+    public static Executor executor(Executor delegate) {
+        return task -> delegate.execute(wrap(task));
+    }
+
+    // Executor preso ao MDC de agora, para callbacks registrados agora e disparados depois por outra thread
+    // (no executor acima o MDC é capturado no execute, que nesse caso já acontece na thread que completa)
+    public static Executor withCurrentContext(Executor delegate) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return task -> delegate.execute(() -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            restore(context);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        });
+    }
+
+    // Agendador que propaga o MDC; execute/submit passam por schedule e também ficam cobertos.
+    // Tarefas canceladas saem da fila na hora (prazos cancelados são a regra, não a exceção).
+    public static ScheduledThreadPoolExecutor scheduledExecutor(int threads, ThreadFactory threadFactory) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads, threadFactory) {
+            @Override
+            public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+                return super.schedule(wrap(command), delay, unit);
+            }
+
+            @Override
+            public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+                return super.schedule(wrap(callable), delay, unit);
+            }
+        };
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    private static void restore(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+}
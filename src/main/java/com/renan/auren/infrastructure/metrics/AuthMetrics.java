@@ -0,0 +1,48 @@
+package com.renan.auren.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Métricas de autenticação:
+//   auren.auth.token.verification  (timer por caminho: firebase, tokeninfo, userinfo; outcome=success|failure|cancelled)
+//   auren.auth.token.cache         (acertos de cache por caminho, quando a verificação nem chega a acontecer)
+//   auren.auth.filter              (timer da validação do JWT da API no SecurityFilter; outcome=authenticated|rejected|anonymous)
+@Component
+public class AuthMetrics {
+
+    public static final String FIREBASE = "firebase";
+    public static final String TOKENINFO = "tokeninfo";
+    public static final String USERINFO = "userinfo";
+
+    private final MeterRegistry registry;
+
+    public AuthMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void verification(String path, String outcome, long startNanos) {
+        Timer.builder("auren.auth.token.verification")
+                .tag("path", path)
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void cacheHit(String path) {
+        Counter.builder("auren.auth.token.cache")
+                .tag("path", path)
+                .register(registry)
+                .increment();
+    }
+
+    public void filter(String outcome, long startNanos) {
+        Timer.builder("auren.auth.filter")
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
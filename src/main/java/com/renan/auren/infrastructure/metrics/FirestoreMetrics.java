@@ -0,0 +1,52 @@
+package com.renan.auren.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Métricas das operações no Firestore, com as tags collection e operation:
+//   auren.firestore.operation  (timer, tag outcome=success|error)
+//   auren.firestore.retries    (contador de reexecuções após o cliente ter sido fechado)
+//   auren.firestore.reconnects (contador de reconstruções do cliente, sem tags)
+@Component
+public class FirestoreMetrics {
+
+    private final MeterRegistry registry;
+
+    public FirestoreMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    // Mede a operação do disparo até a conclusão do futuro; falhas síncronas também contam como erro
+    public <T> CompletableFuture<T> record(String collection, String operation, Supplier<CompletableFuture<T>> call) {
+        Timer.Sample sample = Timer.start(registry);
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        return future.whenComplete((result, error) -> sample.stop(Timer.builder("auren.firestore.operation")
+                .tag("collection", collection)
+                .tag("operation", operation)
+                .tag("outcome", error == null ? "success" : "error")
+                .register(registry)));
+    }
+
+    public void retried(String collection, String operation) {
+        Counter.builder("auren.firestore.retries")
+                .tag("collection", collection)
+                .tag("operation", operation)
+                .register(registry)
+                .increment();
+    }
+
+    public void reconnected() {
+        registry.counter("auren.firestore.reconnects").increment();
+    }
+}
@@ -0,0 +1,289 @@
+package com.renan.auren.infrastructure.persistence.firestore;
+
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
+import com.renan.auren.domain.entities.InventoryItem;
+import com.renan.auren.domain.repositories.InventoryRepository;
+import com.renan.auren.infrastructure.concurrent.Futures;
+import com.renan.auren.infrastructure.resilience.FirestoreResilience;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Layout agregado: um documento por usuário em user_inventories/{userId} com o mapa
+// items.{itemId} = {quantity, acquiredAt}. O inventário inteiro sai em uma única leitura pelo ID;
+// nome, descrição e ícone não são gravados e vêm do catálogo em cache (InventoryService).
+// Limites do Firestore: documento de até 1 MiB (~15 mil itens distintos por usuário) e cerca de
+// 1 escrita/s sustentada por documento, então resgates em rajada do mesmo usuário disputam o mesmo documento.
+@Repository
+@ConditionalOnExpression("'${auren.storage:firestore}' == 'firestore' and '${auren.inventory.layout:documents}' == 'aggregate'")
+public class FirestoreAggregateInventoryRepository implements InventoryRepository {
+
+    @Autowired
+    private FirestoreClientManager clientManager;
+
+    @Autowired
+    private FirestoreResilience resilience;
+
+    private static final String COLLECTION_NAME = "user_inventories";
+    private static final String ITEMS_FIELD = "items";
+    private static final String QUANTITY = "quantity";
+    private static final String ACQUIRED_AT = "acquiredAt";
+    private static final int MAX_BATCH_WRITES = 500;
+    private static final int MAX_PARALLEL_BATCHES = 4;
+    private static final FirestoreResilience.Pool POOL = FirestoreResilience.Pool.INVENTORY;
+
+    private Firestore getFirestore() {
+        return clientManager.get();
+    }
+
+    @Override
+    public CompletableFuture<List<InventoryItem>> findByUserId(Long userId) {
+        return resilience.call(POOL, COLLECTION_NAME, "findByUserId", true, () -> readDocument(userId))
+                .thenApply(snapshot -> toInventoryItems(userId, snapshot));
+    }
+
+    // Cada página lê o documento inteiro e recorta a lista na mesma ordem do layout por documento (ID do
+    // inventário). Por isso readsWholeInventory() é true: o InventoryService pagina a partir do inventário
+    // completo em cache e só chega aqui quem chama o repositório diretamente.
+    @Override
+    public CompletableFuture<List<InventoryItem>> findPageByUserId(Long userId, String afterId, int limit) {
+        return resilience.call(POOL, COLLECTION_NAME, "findPageByUserId", true, () -> readDocument(userId))
+                .thenApply(snapshot -> {
+                    List<InventoryItem> page = new ArrayList<>(limit);
+                    for (InventoryItem item : toInventoryItems(userId, snapshot)) {
+                        if (afterId == null || item.getId().compareTo(afterId) > 0) {
+                            page.add(item);
+                            if (page.size() == limit) {
+                                break;
+                            }
+                        }
+                    }
+                    return page;
+                });
+    }
+
+    @Override
+    public boolean readsWholeInventory() {
+        return true;
+    }
+
+    // O primeiro evento do listener é o estado atual e é ignorado; os seguintes (ou um erro, que encerra o
+    // listener) disparam onChange
+    @Override
+    public Runnable watch(Long userId, Runnable onChange) {
+        AtomicBoolean initial = new AtomicBoolean(true);
+        ListenerRegistration registration = getFirestore()
+                .collection(COLLECTION_NAME)
+                .document(String.valueOf(userId))
+                .addSnapshotListener((snapshot, error) -> {
+                    if (error != null || !initial.compareAndSet(true, false)) {
+                        onChange.run();
+                    }
+                });
+        return registration::remove;
+    }
+
+    // Transação sobre o documento do usuário: a leitura dentro dela devolve a quantidade resultante sem uma
+    // segunda consulta, e o acquiredAt só é gravado quando a entrada do item é criada
+    @Override
+    public CompletableFuture<InventoryItem> increment(InventoryItem inventoryItem, long amount) {
+        Long userId = inventoryItem.getUserId();
+        String itemId = inventoryItem.getItemId();
+
+        return resilience.call(POOL, COLLECTION_NAME, "increment", false, () -> Futures.supply(() -> {
+                    Firestore firestore = getFirestore();
+                    DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(String.valueOf(userId));
+                    return firestore.runTransaction(transaction -> {
+                        DocumentSnapshot snapshot = transaction.get(docRef).get();
+                        Map<String, Object> entry = itemsOf(snapshot).get(itemId);
+                        if (entry == null) {
+                            Map<String, Object> created = new HashMap<>();
+                            created.put(QUANTITY, amount);
+                            created.put(ACQUIRED_AT, inventoryItem.getAcquiredAt());
+                            if (snapshot.exists()) {
+                                transaction.update(docRef, FieldPath.of(ITEMS_FIELD, itemId), created);
+                            } else {
+                                Map<String, Object> data = new HashMap<>();
+                                data.put("userId", userId);
+                                data.put(ITEMS_FIELD, Map.of(itemId, created));
+                                transaction.create(docRef, data);
+                            }
+                            return toInventoryItem(userId, itemId, created);
+                        }
+
+                        long quantity = (entry.get(QUANTITY) instanceof Number current ? current.longValue() : 0L) + amount;
+                        transaction.update(docRef, FieldPath.of(ITEMS_FIELD, itemId, QUANTITY), quantity);
+                        InventoryItem stored = toInventoryItem(userId, itemId, entry);
+                        stored.setQuantity(quantity);
+                        return stored;
+                    });
+                }).thenCompose(Futures::toCompletable))
+                .thenApply(stored -> {
+                    stored.setItemName(inventoryItem.getItemName());
+                    stored.setItemDescription(inventoryItem.getItemDescription());
+                    stored.setItemCategory(inventoryItem.getItemCategory());
+                    stored.setItemRarity(inventoryItem.getItemRarity());
+                    stored.setItemIcon(inventoryItem.getItemIcon());
+                    return stored;
+                });
+    }
+
+    // Os incrementos são agrupados por usuário (uma escrita por documento agregado) e as escritas em
+    // WriteBatch de até 500 documentos, enviados em algumas filas paralelas como no layout por documento
+    @Override
+    public CompletableFuture<Map<String, Throwable>> incrementAll(List<Increment> increments) {
+        Map<Long, List<Increment>> byUser = new LinkedHashMap<>();
+        for (Increment increment : increments) {
+            byUser.computeIfAbsent(increment.inventoryItem().getUserId(), key -> new ArrayList<>()).add(increment);
+        }
+
+        List<List<List<Increment>>> batches = new ArrayList<>();
+        List<List<Increment>> current = new ArrayList<>();
+        for (List<Increment> userIncrements : byUser.values()) {
+            current.add(userIncrements);
+            if (current.size() == MAX_BATCH_WRITES) {
+                batches.add(current);
+                current = new ArrayList<>();
+            }
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+
+        Map<String, Throwable> failures = new ConcurrentHashMap<>();
+        int lanes = Math.min(MAX_PARALLEL_BATCHES, batches.size());
+        List<CompletableFuture<Void>> laneFutures = new ArrayList<>(lanes);
+        for (int lane = 0; lane < lanes; lane++) {
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            for (int i = lane; i < batches.size(); i += lanes) {
+                List<List<Increment>> batch = batches.get(i);
+                chain = chain.thenCompose(ignored -> commitBatch(batch)
+                        .handle((result, error) -> {
+                            if (error != null) {
+                                Throwable cause = Futures.unwrap(error);
+                                for (List<Increment> userIncrements : batch) {
+                                    for (Increment increment : userIncrements) {
+                                        failures.put(InventoryRepository.inventoryId(
+                                                increment.inventoryItem().getUserId(),
+                                                increment.inventoryItem().getItemId()), cause);
+                                    }
+                                }
+                            }
+                            return null;
+                        }));
+            }
+            laneFutures.add(chain);
+        }
+
+        return CompletableFuture.allOf(laneFutures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> failures);
+    }
+
+    // Os documentos do lote são lidos antes em um único getAll para saber quais itens ainda não existem: só
+    // esses recebem acquiredAt. A quantidade continua sendo somada no servidor, então um resgate concorrente
+    // entre a leitura e o commit não perde incrementos (no máximo regrava o acquiredAt de um item recém-criado).
+    private CompletableFuture<Void> commitBatch(List<List<Increment>> usersIncrements) {
+        return resilience.call(POOL, COLLECTION_NAME, "commitBatch", false, () -> Futures.supply(() -> {
+                    Firestore firestore = getFirestore();
+                    Map<Long, DocumentReference> docRefs = new LinkedHashMap<>();
+                    for (List<Increment> userIncrements : usersIncrements) {
+                        Long userId = userIncrements.get(0).inventoryItem().getUserId();
+                        docRefs.put(userId, firestore.collection(COLLECTION_NAME).document(String.valueOf(userId)));
+                    }
+                    return docRefs;
+                })
+                .thenCompose(docRefs -> Futures.toCompletable(
+                                getFirestore().getAll(docRefs.values().toArray(DocumentReference[]::new)))
+                        .thenCompose(snapshots -> {
+                            Map<String, Map<String, Map<String, Object>>> existing = new HashMap<>();
+                            for (DocumentSnapshot snapshot : snapshots) {
+                                existing.put(snapshot.getId(), itemsOf(snapshot));
+                            }
+
+                            WriteBatch batch = getFirestore().batch();
+                            for (List<Increment> userIncrements : usersIncrements) {
+                                Long userId = userIncrements.get(0).inventoryItem().getUserId();
+                                Map<String, InventoryItem> templates = new HashMap<>();
+                                Map<String, Long> amounts = new HashMap<>();
+                                for (Increment increment : userIncrements) {
+                                    String itemId = increment.inventoryItem().getItemId();
+                                    templates.putIfAbsent(itemId, increment.inventoryItem());
+                                    amounts.merge(itemId, increment.amount(), Long::sum);
+                                }
+                                batch.set(docRefs.get(userId), toIncrementData(userId, templates, amounts,
+                                        existing.getOrDefault(String.valueOf(userId), Map.of())), SetOptions.merge());
+                            }
+                            return Futures.toCompletable(batch.commit());
+                        }))
+                .thenApply(results -> null));
+    }
+
+    private CompletableFuture<DocumentSnapshot> readDocument(Long userId) {
+        return Futures.supply(() -> getFirestore()
+                        .collection(COLLECTION_NAME)
+                        .document(String.valueOf(userId))
+                        .get())
+                .thenCompose(Futures::toCompletable);
+    }
+
+    private static List<InventoryItem> toInventoryItems(Long userId, DocumentSnapshot snapshot) {
+        Map<String, Map<String, Object>> entries = itemsOf(snapshot);
+        List<InventoryItem> items = new ArrayList<>(entries.size());
+        entries.forEach((itemId, entry) -> items.add(toInventoryItem(userId, itemId, entry)));
+        items.sort(Comparator.comparing(InventoryItem::getId));
+        return items;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Map<String, Object>> itemsOf(DocumentSnapshot snapshot) {
+        Object items = snapshot.exists() ? snapshot.get(ITEMS_FIELD) : null;
+        return items instanceof Map ? (Map<String, Map<String, Object>>) items : Map.of();
+    }
+
+    private static InventoryItem toInventoryItem(Long userId, String itemId, Map<String, Object> entry) {
+        InventoryItem item = new InventoryItem();
+        item.setId(InventoryRepository.inventoryId(userId, itemId));
+        item.setUserId(userId);
+        item.setItemId(itemId);
+        item.setQuantity(entry.get(QUANTITY) instanceof Number quantity ? quantity.longValue() : 0L);
+        item.setAcquiredAt(entry.get(ACQUIRED_AT) instanceof Number acquiredAt ? acquiredAt.longValue() : null);
+        return item;
+    }
+
+    private static Map<String, Object> toIncrementData(Long userId, Map<String, InventoryItem> templates,
+                                                       Map<String, Long> amounts,
+                                                       Map<String, Map<String, Object>> existing) {
+        Map<String, Object> items = new HashMap<>();
+        templates.forEach((itemId, template) -> {
+            Map<String, Object> entry = new HashMap<>();
+            if (!existing.containsKey(itemId)) {
+                entry.put(ACQUIRED_AT, template.getAcquiredAt());
+            }
+            // Incremento feito no servidor: resgates concorrentes não perdem atualizações
+            entry.put(QUANTITY, FieldValue.increment(amounts.get(itemId)));
+            items.put(itemId, entry);
+        });
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("userId", userId);
+        data.put(ITEMS_FIELD, items);
+        return data;
+    }
+}
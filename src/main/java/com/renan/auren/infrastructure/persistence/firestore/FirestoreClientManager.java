@@ -0,0 +1,205 @@
+package com.renan.auren.infrastructure.persistence.firestore;
+
+import com.google.api.gax.grpc.ChannelPoolSettings;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreOptions;
+import com.renan.auren.infrastructure.metrics.FirestoreMetrics;
+import com.renan.auren.infrastructure.security.FirebaseCredentials;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Dono do único cliente Firestore da aplicação. O cliente é criado e aquecido na subida (a primeira
+// requisição não paga o handshake do canal gRPC), com pool de canais e keepalive configuráveis.
+// Quando o cliente é encontrado fechado, reconnect() reconstrói uma única vez mesmo com várias falhas
+// concorrentes; o cliente antigo é encerrado depois de um período de carência para as chamadas em andamento.
+// Um health check periódico também dispara a reconstrução após falhas consecutivas.
+@Component
+@ConditionalOnProperty(name = "auren.storage", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreClientManager implements HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(FirestoreClientManager.class);
+
+    private static final String HEALTH_COLLECTION = "_health";
+    private static final String HEALTH_DOC = "ping";
+
+    private final FirebaseCredentials firebaseCredentials;
+    private final FirestoreMetrics metrics;
+    private final int channelPoolSize;
+    private final Duration keepAliveTime;
+    private final Duration keepAliveTimeout;
+    private final Duration closeGrace;
+    private final Duration healthCheckTimeout;
+    private final int healthCheckFailures;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Firestore current;
+    private CompletableFuture<Firestore> rebuilding;
+
+    private volatile Health lastHealth = Health.unknown().build();
+    private int consecutiveFailures;
+
+    public FirestoreClientManager(
+            FirebaseCredentials firebaseCredentials,
+            FirestoreMetrics metrics,
+            @Value("${auren.firestore.channel-pool-size:4}") int channelPoolSize,
+            @Value("${auren.firestore.keep-alive-time:60s}") Duration keepAliveTime,
+            @Value("${auren.firestore.keep-alive-timeout:20s}") Duration keepAliveTimeout,
+            @Value("${auren.firestore.close-grace:30s}") Duration closeGrace,
+            @Value("${auren.firestore.health-check-timeout:5s}") Duration healthCheckTimeout,
+            @Value("${auren.firestore.health-check-failures:2}") int healthCheckFailures) {
+
+        this.firebaseCredentials = firebaseCredentials;
+        this.metrics = metrics;
+        this.channelPoolSize = channelPoolSize;
+        this.keepAliveTime = keepAliveTime;
+        this.keepAliveTimeout = keepAliveTimeout;
+        this.closeGrace = closeGrace;
+        this.healthCheckTimeout = healthCheckTimeout;
+        this.healthCheckFailures = healthCheckFailures;
+    }
+
+    @PostConstruct
+    public void start() {
+        current = build();
+        // Aquece o canal; se o Firestore estiver indisponível a aplicação sobe mesmo assim e o health fica DOWN
+        ping(current);
+    }
+
+    public Firestore get() {
+        Firestore firestore = current;
+        if (firestore == null) {
+            throw new IllegalStateException("Firestore não está inicializado");
+        }
+        return firestore;
+    }
+
+    // Reconstrói o cliente se "failed" ainda for o atual. Chamadas concorrentes recebem a mesma reconstrução
+    // e quem chega depois dela recebe direto o cliente novo.
+    public CompletableFuture<Firestore> reconnect(Firestore failed) {
+        CompletableFuture<Firestore> future;
+        lock.lock();
+        try {
+            if (current != failed) {
+                return CompletableFuture.completedFuture(current);
+            }
+            if (rebuilding != null) {
+                return rebuilding;
+            }
+            future = new CompletableFuture<>();
+            rebuilding = future;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            Firestore rebuilt = build();
+            lock.lock();
+            try {
+                current = rebuilt;
+                rebuilding = null;
+            } finally {
+                lock.unlock();
+            }
+            metrics.reconnected();
+            log.warn("Cliente Firestore reconstruído; o anterior será encerrado em {}", closeGrace);
+            retire(failed);
+            future.complete(rebuilt);
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                rebuilding = null;
+            } finally {
+                lock.unlock();
+            }
+            log.error("Falha ao reconstruir o cliente Firestore", e);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Scheduled(initialDelayString = "${auren.firestore.health-check-interval:30s}",
+            fixedDelayString = "${auren.firestore.health-check-interval:30s}")
+    public void healthCheck() {
+        Firestore firestore = current;
+        if (ping(firestore)) {
+            consecutiveFailures = 0;
+            return;
+        }
+        if (++consecutiveFailures >= healthCheckFailures) {
+            consecutiveFailures = 0;
+            reconnect(firestore);
+        }
+    }
+
+    @Override
+    public Health health() {
+        return lastHealth;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Firestore firestore = current;
+        if (firestore != null) {
+            firestore.shutdown();
+        }
+    }
+
+    private boolean ping(Firestore firestore) {
+        long start = System.nanoTime();
+        try {
+            firestore.collection(HEALTH_COLLECTION).document(HEALTH_DOC).get()
+                    .get(healthCheckTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            lastHealth = Health.up()
+                    .withDetail("latencyMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                    .build();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.warn("Health check do Firestore falhou: {}", e.toString());
+            lastHealth = Health.down(e).build();
+            return false;
+        }
+    }
+
+    // Visível no pacote para os testes trocarem o cliente real por um simulado
+    Firestore build() {
+        return FirestoreOptions.newBuilder()
+                .setProjectId(firebaseCredentials.projectId())
+                .setCredentials(firebaseCredentials.credentials())
+                .setChannelProvider(FirestoreOptions.getDefaultTransportChannelProviderBuilder()
+                        .setChannelPoolSettings(ChannelPoolSettings.staticallySized(channelPoolSize))
+                        .setKeepAliveTimeDuration(keepAliveTime)
+                        .setKeepAliveTimeoutDuration(keepAliveTimeout)
+                        .setKeepAliveWithoutCalls(true)
+                        .build())
+                .build()
+                .getService();
+    }
+
+    // shutdown() deixa terminar o que já foi enviado; a carência cobre quem pegou o cliente antigo e ainda não chamou
+    private void retire(Firestore old) {
+        CompletableFuture.delayedExecutor(closeGrace.toMillis(), TimeUnit.MILLISECONDS)
+                .execute(() -> {
+                    try {
+                        old.shutdown();
+                    } catch (RuntimeException e) {
+                        log.warn("Erro ao encerrar cliente Firestore antigo: {}", e.getMessage());
+                    }
+                });
+    }
+}
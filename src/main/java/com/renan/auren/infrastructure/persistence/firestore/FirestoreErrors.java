@@ -0,0 +1,23 @@
+package com.renan.auren.infrastructure.persistence.firestore;
+
+import com.google.api.gax.rpc.ApiException;
+import io.grpc.StatusRuntimeException;
+
+// Identifica o código gRPC de uma falha do Firestore, que pode vir embrulhada em CompletionException/FirestoreException
+final class FirestoreErrors {
+
+    private FirestoreErrors() {
+    }
+
+    static boolean hasCode(Throwable error, String code) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof ApiException api) {
+                return code.equals(api.getStatusCode().getCode().name());
+            }
+            if (current instanceof StatusRuntimeException grpc) {
+                return code.equals(grpc.getStatus().getCode().name());
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,245 @@
+package com.renan.auren.infrastructure.persistence.firestore;
+
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import com.renan.auren.domain.entities.InventoryItem;
+import com.renan.auren.domain.repositories.InventoryRepository;
+import com.renan.auren.infrastructure.concurrent.Futures;
+import com.renan.auren.infrastructure.resilience.FirestoreResilience;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Layout padrão: um documento por (usuário, item) na coleção inventory
+@Repository
+@ConditionalOnExpression("'${auren.storage:firestore}' == 'firestore' and '${auren.inventory.layout:documents}' == 'documents'")
+public class FirestoreInventoryRepository implements InventoryRepository {
+
+    @Autowired
+    private FirestoreClientManager clientManager;
+
+    @Autowired
+    private FirestoreResilience resilience;
+
+    private static final String COLLECTION_NAME = "inventory";
+    private static final int MAX_BATCH_WRITES = 500;
+    private static final int MAX_PARALLEL_BATCHES = 4;
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+    private static final String QUANTITY = "quantity";
+    private static final String ALREADY_EXISTS = "ALREADY_EXISTS";
+    private static final String NOT_FOUND = "NOT_FOUND";
+    private static final FirestoreResilience.Pool POOL = FirestoreResilience.Pool.INVENTORY;
+
+    private Firestore getFirestore() {
+        return clientManager.get();
+    }
+
+    @Override
+    public CompletableFuture<List<InventoryItem>> findByUserId(Long userId) {
+        return resilience.call(POOL, COLLECTION_NAME, "findByUserId", true, () -> Futures.supply(() -> getFirestore()
+                        .collection(COLLECTION_NAME)
+                        .whereEqualTo("userId", userId)
+                        .get())
+                .thenCompose(Futures::toCompletable)
+                .thenApply(snapshot -> {
+                    List<InventoryItem> items = new ArrayList<>();
+                    for (QueryDocumentSnapshot doc : snapshot.getDocuments()) {
+                        InventoryItem item = doc.toObject(InventoryItem.class);
+                        if (item != null) {
+                            item.setId(doc.getId());
+                            items.add(item);
+                        }
+                    }
+                    return items;
+                }));
+    }
+
+    @Override
+    public CompletableFuture<List<InventoryItem>> findPageByUserId(Long userId, String afterId, int limit) {
+        return resilience.call(POOL, COLLECTION_NAME, "findPageByUserId", true, () -> queryPageByUserId(userId, afterId, limit));
+    }
+
+    private CompletableFuture<List<InventoryItem>> queryPageByUserId(Long userId, String afterId, int limit) {
+        return Futures.supply(() -> {
+                    Firestore firestore = getFirestore();
+                    Query query = firestore.collection(COLLECTION_NAME)
+                            .whereEqualTo("userId", userId)
+                            .orderBy(FieldPath.documentId())
+                            .limit(limit);
+                    if (afterId != null) {
+                        query = query.startAfter(firestore.collection(COLLECTION_NAME).document(afterId));
+                    }
+                    return query.get();
+                })
+                .thenCompose(Futures::toCompletable)
+                .thenApply(snapshot -> {
+                    List<InventoryItem> items = new ArrayList<>(snapshot.size());
+                    for (QueryDocumentSnapshot doc : snapshot.getDocuments()) {
+                        InventoryItem item = doc.toObject(InventoryItem.class);
+                        item.setId(doc.getId());
+                        items.add(item);
+                    }
+                    return items;
+                });
+    }
+
+    // O primeiro evento do listener é o estado atual e é ignorado; os seguintes (ou um erro, que encerra o
+    // listener) disparam onChange
+    @Override
+    public Runnable watch(Long userId, Runnable onChange) {
+        AtomicBoolean initial = new AtomicBoolean(true);
+        ListenerRegistration registration = getFirestore()
+                .collection(COLLECTION_NAME)
+                .whereEqualTo("userId", userId)
+                .addSnapshotListener((snapshot, error) -> {
+                    if (error != null || !initial.compareAndSet(true, false)) {
+                        onChange.run();
+                    }
+                });
+        return registration::remove;
+    }
+
+    // Upsert atômico em uma transação: a leitura e a escrita do documento são confirmadas juntas. Cria o
+    // documento com o acquiredAt do primeiro resgate ou só soma a quantidade, e devolve o estado gravado com a
+    // quantidade resultante sem reler nada depois da escrita. Conflitos com resgates concorrentes do mesmo item
+    // são repetidos pelo próprio runTransaction, então a operação não entra no retry da camada de resiliência.
+    @Override
+    public CompletableFuture<InventoryItem> increment(InventoryItem inventoryItem, long amount) {
+        String id = InventoryRepository.inventoryId(inventoryItem.getUserId(), inventoryItem.getItemId());
+
+        return resilience.call(POOL, COLLECTION_NAME, "increment", false, () -> Futures.supply(() -> {
+                    Firestore firestore = getFirestore();
+                    DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
+                    return firestore.runTransaction(transaction -> {
+                        DocumentSnapshot current = transaction.get(docRef).get();
+                        if (!current.exists()) {
+                            transaction.create(docRef, toCreateData(inventoryItem, amount));
+                            return toStored(inventoryItem, id, amount, inventoryItem.getAcquiredAt());
+                        }
+                        Long stored = current.getLong(QUANTITY);
+                        long quantity = (stored != null ? stored : 0L) + amount;
+                        transaction.update(docRef, QUANTITY, quantity);
+                        return toStored(inventoryItem, id, quantity, current.getLong("acquiredAt"));
+                    });
+                })
+                .thenCompose(Futures::toCompletable));
+    }
+
+    // Os upserts são agrupados em WriteBatch de até 500 operações (limite do Firestore). Cada lote é atômico,
+    // então uma falha afeta apenas as entradas do próprio lote. Como no resgate individual, documentos novos
+    // são criados com create() e os existentes só têm a quantidade incrementada, o que exige uma leitura
+    // (getAll) por lote para saber quais já existem. Os lotes são enviados em algumas filas
+    // paralelas para não abrir centenas de commits simultâneos em importações grandes.
+    @Override
+    public CompletableFuture<Map<String, Throwable>> incrementAll(List<Increment> increments) {
+        List<List<Increment>> batches = new ArrayList<>();
+        for (int start = 0; start < increments.size(); start += MAX_BATCH_WRITES) {
+            batches.add(increments.subList(start, Math.min(start + MAX_BATCH_WRITES, increments.size())));
+        }
+
+        Map<String, Throwable> failures = new ConcurrentHashMap<>();
+        int lanes = Math.min(MAX_PARALLEL_BATCHES, batches.size());
+        List<CompletableFuture<Void>> laneFutures = new ArrayList<>(lanes);
+        for (int lane = 0; lane < lanes; lane++) {
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            for (int i = lane; i < batches.size(); i += lanes) {
+                List<Increment> batch = batches.get(i);
+                chain = chain.thenCompose(ignored -> commitBatch(batch)
+                        .handle((result, error) -> {
+                            if (error != null) {
+                                Throwable cause = Futures.unwrap(error);
+                                for (Increment increment : batch) {
+                                    failures.put(inventoryId(increment), cause);
+                                }
+                            }
+                            return null;
+                        }));
+            }
+            laneFutures.add(chain);
+        }
+
+        return CompletableFuture.allOf(laneFutures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> failures);
+    }
+
+    private CompletableFuture<Void> commitBatch(List<Increment> increments) {
+        return resilience.call(POOL, COLLECTION_NAME, "commitBatch", false, () -> commitBatch(increments, 1));
+    }
+
+    // Se outro resgate criou (ou alguém removeu) um dos documentos entre a leitura e o commit, o lote inteiro é
+    // rejeitado sem aplicar nada, então pode ser montado de novo com segurança
+    private CompletableFuture<Void> commitBatch(List<Increment> increments, int attempt) {
+        return Futures.supply(() -> {
+                    Firestore firestore = getFirestore();
+                    DocumentReference[] refs = increments.stream()
+                            .map(increment -> firestore.collection(COLLECTION_NAME).document(inventoryId(increment)))
+                            .toArray(DocumentReference[]::new);
+                    return firestore.getAll(refs);
+                })
+                .thenCompose(Futures::toCompletable)
+                .thenCompose(snapshots -> Futures.supply(() -> {
+                    Firestore firestore = getFirestore();
+                    WriteBatch batch = firestore.batch();
+                    for (int i = 0; i < increments.size(); i++) {
+                        Increment increment = increments.get(i);
+                        DocumentReference ref = firestore.collection(COLLECTION_NAME).document(inventoryId(increment));
+                        if (snapshots.get(i).exists()) {
+                            batch.update(ref, QUANTITY, FieldValue.increment(increment.amount()));
+                        } else {
+                            batch.create(ref, toCreateData(increment.inventoryItem(), increment.amount()));
+                        }
+                    }
+                    return batch.commit();
+                }))
+                .thenCompose(Futures::toCompletable)
+                .<Void>thenApply(results -> null)
+                .exceptionallyCompose(error -> {
+                    boolean conflict = FirestoreErrors.hasCode(error, ALREADY_EXISTS)
+                            || FirestoreErrors.hasCode(error, NOT_FOUND);
+                    if (conflict && attempt < MAX_BATCH_ATTEMPTS) {
+                        return commitBatch(increments, attempt + 1);
+                    }
+                    return CompletableFuture.failedFuture(Futures.unwrap(error));
+                });
+    }
+
+    private static String inventoryId(Increment increment) {
+        return InventoryRepository.inventoryId(increment.inventoryItem().getUserId(), increment.inventoryItem().getItemId());
+    }
+
+    // Os dados de exibição vêm do modelo (catálogo atual); quantidade e acquiredAt, do que a transação gravou
+    private static InventoryItem toStored(InventoryItem inventoryItem, String id, long quantity, Long acquiredAt) {
+        return new InventoryItem(id, inventoryItem.getUserId(), inventoryItem.getItemId(), inventoryItem.getItemName(),
+                inventoryItem.getItemDescription(), inventoryItem.getItemCategory(), inventoryItem.getItemRarity(),
+                inventoryItem.getItemIcon(), quantity, acquiredAt);
+    }
+
+    private static Map<String, Object> toCreateData(InventoryItem inventoryItem, long amount) {
+        Map<String, Object> itemData = new HashMap<>();
+        itemData.put("userId", inventoryItem.getUserId());
+        itemData.put("itemId", inventoryItem.getItemId());
+        itemData.put("itemName", inventoryItem.getItemName());
+        itemData.put("itemDescription", inventoryItem.getItemDescription());
+        itemData.put("itemCategory", inventoryItem.getItemCategory());
+        itemData.put("itemRarity", inventoryItem.getItemRarity());
+        itemData.put("itemIcon", inventoryItem.getItemIcon());
+        itemData.put("acquiredAt", inventoryItem.getAcquiredAt());
+        itemData.put(QUANTITY, amount);
+        return itemData;
+    }
+}
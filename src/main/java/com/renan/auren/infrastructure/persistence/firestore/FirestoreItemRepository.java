@@ -0,0 +1,247 @@
+package com.renan.auren.infrastructure.persistence.firestore;
+
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.renan.auren.domain.entities.Item;
+import com.renan.auren.domain.repositories.ItemRepository;
+import com.renan.auren.infrastructure.concurrent.Futures;
+import com.renan.auren.infrastructure.metrics.FirestoreMetrics;
+import com.renan.auren.infrastructure.resilience.FirestoreResilience;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+@Repository
+@ConditionalOnProperty(name = "auren.storage", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreItemRepository implements ItemRepository {
+
+    @Autowired
+    private FirestoreClientManager clientManager;
+
+    @Autowired
+    private FirestoreMetrics metrics;
+
+    @Autowired
+    private FirestoreResilience resilience;
+
+    private static final String COLLECTION_NAME = "items";
+    private static final int MAX_IN_VALUES = 30;
+    private static final FirestoreResilience.Pool POOL = FirestoreResilience.Pool.ITEMS;
+
+    private Firestore getFirestore() {
+        return clientManager.get();
+    }
+
+    @Override
+    public CompletableFuture<Item> findActiveByRedeemCode(String redeemCode) {
+        return resilience.call(POOL, COLLECTION_NAME, "findActiveByRedeemCode", true, () -> queryActiveByRedeemCode(redeemCode));
+    }
+
+    private CompletableFuture<Item> queryActiveByRedeemCode(String redeemCode) {
+        Firestore firestore = getFirestore();
+        try {
+            return queryActiveByRedeemCode(firestore, redeemCode);
+        } catch (IllegalStateException e) {
+            if (e.getMessage() != null && e.getMessage().contains("closed")) {
+                // Cliente fechado: a reconstrução é compartilhada entre as falhas concorrentes e tentamos uma vez
+                metrics.retried(COLLECTION_NAME, "findActiveByRedeemCode");
+                return clientManager.reconnect(firestore)
+                        .thenCompose(fresh -> queryActiveByRedeemCode(fresh, redeemCode));
+            }
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<Item> queryActiveByRedeemCode(Firestore firestore, String redeemCode) {
+        var future = firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("redeemCode", redeemCode)
+                .whereEqualTo("active", true)
+                .get();
+
+        return Futures.toCompletable(future).thenApply(snapshot -> {
+            var docs = snapshot.getDocuments();
+            if (docs.isEmpty()) {
+                return null;
+            }
+            Item item = docs.get(0).toObject(Item.class);
+            if (item != null) {
+                item.setId(docs.get(0).getId());
+            }
+            return item;
+        });
+    }
+
+    // O operador "in" do Firestore aceita até 30 valores: os códigos são consultados em blocos paralelos
+    @Override
+    public CompletableFuture<Map<String, Item>> findActiveByRedeemCodes(Collection<String> redeemCodes) {
+        return resilience.call(POOL, COLLECTION_NAME, "findActiveByRedeemCodes", true, () -> queryActiveByRedeemCodes(redeemCodes));
+    }
+
+    private CompletableFuture<Map<String, Item>> queryActiveByRedeemCodes(Collection<String> redeemCodes) {
+        List<String> codes = new ArrayList<>(redeemCodes);
+        List<CompletableFuture<QuerySnapshot>> chunks = new ArrayList<>();
+        for (int start = 0; start < codes.size(); start += MAX_IN_VALUES) {
+            List<String> chunk = codes.subList(start, Math.min(start + MAX_IN_VALUES, codes.size()));
+            chunks.add(Futures.supply(() -> getFirestore().collection(COLLECTION_NAME)
+                            .whereIn("redeemCode", chunk)
+                            .whereEqualTo("active", true)
+                            .get())
+                    .thenCompose(Futures::toCompletable));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    Map<String, Item> items = new HashMap<>();
+                    for (CompletableFuture<QuerySnapshot> chunk : chunks) {
+                        for (QueryDocumentSnapshot doc : chunk.join().getDocuments()) {
+                            Item item = doc.toObject(Item.class);
+                            item.setId(doc.getId());
+                            items.putIfAbsent(item.getRedeemCode(), item);
+                        }
+                    }
+                    return items;
+                });
+    }
+
+    // getAll lê todos os documentos em uma única chamada
+    @Override
+    public CompletableFuture<Map<String, Item>> findByIds(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        return resilience.call(POOL, COLLECTION_NAME, "findByIds", true, () -> Futures.supply(() -> {
+                    Firestore firestore = getFirestore();
+                    DocumentReference[] refs = ids.stream()
+                            .map(id -> firestore.collection(COLLECTION_NAME).document(id))
+                            .toArray(DocumentReference[]::new);
+                    return firestore.getAll(refs);
+                })
+                .thenCompose(Futures::toCompletable)
+                .thenApply(snapshots -> {
+                    Map<String, Item> items = new HashMap<>();
+                    for (DocumentSnapshot doc : snapshots) {
+                        Item item = doc.exists() ? doc.toObject(Item.class) : null;
+                        if (item != null) {
+                            item.setId(doc.getId());
+                            items.put(doc.getId(), item);
+                        }
+                    }
+                    return items;
+                }));
+    }
+
+    @Override
+    public CompletableFuture<List<Item>> findAllActive() {
+        return resilience.call(POOL, COLLECTION_NAME, "findAllActive", true, () -> Futures.supply(() -> getFirestore()
+                        .collection(COLLECTION_NAME)
+                        .whereEqualTo("active", true)
+                        .get())
+                .thenCompose(Futures::toCompletable)
+                .thenApply(FirestoreItemRepository::toItems));
+    }
+
+    @Override
+    public CompletableFuture<List<Item>> findAll() {
+        return resilience.call(POOL, COLLECTION_NAME, "findAll", true, () -> Futures.supply(() -> getFirestore()
+                        .collection(COLLECTION_NAME)
+                        .get())
+                .thenCompose(Futures::toCompletable)
+                .thenApply(FirestoreItemRepository::toItems));
+    }
+
+    @Override
+    public CompletableFuture<Item> save(Item item) {
+        Map<String, Object> itemData = toItemData(item);
+
+        return resilience.call(POOL, COLLECTION_NAME, "save", false, () -> Futures.supply(() -> getFirestore()
+                        .collection(COLLECTION_NAME)
+                        .document())
+                .thenCompose(docRef -> Futures.toCompletable(docRef.set(itemData))
+                        .thenApply(result -> {
+                            item.setId(docRef.getId());
+                            return item;
+                        })));
+    }
+
+    // O BulkWriter agrupa as gravações em lotes paralelos e controla a vazão sozinho
+    // (começa em 500 ops/s e sobe 50% a cada 5 minutos), reenviando escritas que falharem por contenção;
+    // por isso as gravações em massa só são medidas e não passam pela FirestoreResilience
+    @Override
+    public CatalogWriter catalogWriter() {
+        Firestore firestore = getFirestore();
+        BulkWriter writer = firestore.bulkWriter();
+        CollectionReference collection = firestore.collection(COLLECTION_NAME);
+
+        return new CatalogWriter() {
+            @Override
+            public CompletableFuture<Item> save(Item item) {
+                DocumentReference docRef = item.getId() != null
+                        ? collection.document(item.getId())
+                        : collection.document();
+                return metrics.record(COLLECTION_NAME, "bulkSet", () -> Futures
+                        .supply(() -> writer.set(docRef, toItemData(item)))
+                        .thenCompose(Futures::toCompletable)
+                        .thenApply(result -> {
+                            item.setId(docRef.getId());
+                            return item;
+                        }));
+            }
+
+            @Override
+            public CompletableFuture<Void> close() {
+                return metrics.record(COLLECTION_NAME, "bulkFlush", () -> Futures.toCompletable(writer.flush())
+                        .thenRun(() -> {
+                            try {
+                                writer.close();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            } catch (ExecutionException e) {
+                                throw new CompletionException(e.getCause());
+                            }
+                        }));
+            }
+        };
+    }
+
+    private static List<Item> toItems(QuerySnapshot snapshot) {
+        List<Item> items = new ArrayList<>();
+        for (QueryDocumentSnapshot doc : snapshot.getDocuments()) {
+            Item item = doc.toObject(Item.class);
+            if (item != null) {
+                item.setId(doc.getId());
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private static Map<String, Object> toItemData(Item item) {
+        Map<String, Object> itemData = new HashMap<>();
+        itemData.put("name", item.getName());
+        itemData.put("description", item.getDescription());
+        itemData.put("category", item.getCategory());
+        itemData.put("rarity", item.getRarity());
+        itemData.put("value", item.getValue());
+        itemData.put("icon", item.getIcon());
+        String redeemCode = item.getRedeemCode();
+        if (redeemCode != null) {
+            itemData.put("redeemCode", redeemCode.toUpperCase());
+        }
+        itemData.put("active", item.getActive() != null ? item.getActive() : true);
+        return itemData;
+    }
+}
@@ -0,0 +1,172 @@
+package com.renan.auren.infrastructure.persistence.firestore;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import com.renan.auren.domain.entities.User;
+import com.renan.auren.domain.repositories.UserRepository;
+import com.renan.auren.infrastructure.concurrent.Futures;
+import com.renan.auren.infrastructure.metrics.FirestoreMetrics;
+import com.renan.auren.infrastructure.resilience.FirestoreResilience;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+@Repository
+@ConditionalOnProperty(name = "auren.storage", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreUserRepository implements UserRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(FirestoreUserRepository.class);
+
+    private static final String COLLECTION_NAME = "users";
+    private static final String COUNTER_COLLECTION = "counters";
+    private static final String USER_COUNTER_DOC = "users";
+    private static final String EMAIL_INDEX_COLLECTION = "user_emails";
+
+    @Autowired
+    private FirestoreClientManager clientManager;
+
+    @Autowired
+    private FirestoreMetrics metrics;
+
+    @Autowired
+    private FirestoreResilience resilience;
+
+    // Método helper que dispara a operação pela camada de resiliência (deadline, retry, circuit breaker e o
+    // bulkhead de usuários) e, se o cliente estiver fechado, reconstrói (uma vez para todas as chamadas
+    // concorrentes) e tenta novamente
+    private <T> CompletableFuture<T> executeWithRetry(String collection, String operationName, boolean idempotent,
+                                                      Function<Firestore, ApiFuture<T>> operation) {
+        return resilience.call(FirestoreResilience.Pool.USERS, collection, operationName, idempotent,
+                () -> dispatch(collection, operationName, operation));
+    }
+
+    private <T> CompletableFuture<T> dispatch(String collection, String operationName,
+                                              Function<Firestore, ApiFuture<T>> operation) {
+        Firestore firestore = clientManager.get();
+        try {
+            return Futures.toCompletable(operation.apply(firestore));
+        } catch (IllegalStateException e) {
+            if (e.getMessage() != null && e.getMessage().contains("closed")) {
+                log.warn("Firestore estava fechado durante {}.{}, reconectando", collection, operationName);
+                metrics.retried(collection, operationName);
+                return clientManager.reconnect(firestore)
+                        .thenCompose(fresh -> Futures.toCompletable(operation.apply(fresh)));
+            }
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Reserva um bloco de IDs em uma única transação no contador global
+    @Override
+    public CompletableFuture<Long> reserveIds(int count) {
+        return executeWithRetry(COUNTER_COLLECTION, "reserveIds", false, fs -> {
+            DocumentReference counterRef = fs
+                    .collection(COUNTER_COLLECTION)
+                    .document(USER_COUNTER_DOC);
+
+            return fs.runTransaction(transaction -> {
+                DocumentSnapshot snapshot = transaction.get(counterRef).get();
+
+                Long lastId;
+
+                if (!snapshot.exists()) {
+                    lastId = 0L;
+                    transaction.set(counterRef,
+                            java.util.Collections.singletonMap("lastId", lastId)
+                    );
+                } else {
+                    lastId = snapshot.getLong("lastId");
+                }
+
+                transaction.update(counterRef, "lastId", lastId + count);
+
+                return lastId + 1;
+            });
+        });
+    }
+
+    // O usuário e o documento de índice user_emails/{email} são gravados no mesmo lote (atômico).
+    // Se o email mudar, o índice antigo fica para trás; quem lê o índice confere o email do usuário.
+    @Override
+    public CompletableFuture<Void> save(User user) {
+        return executeWithRetry(COLLECTION_NAME, "save", true, fs -> {
+            WriteBatch batch = fs.batch();
+            batch.set(fs.collection(COLLECTION_NAME).document(String.valueOf(user.getId())), user);
+            if (user.getEmail() != null) {
+                batch.set(emailIndexRef(fs, user.getEmail()), Map.of("userId", user.getId()));
+            }
+            return batch.commit();
+        })
+                .thenApply(result -> null);
+    }
+
+    // Leitura pontual de user_emails/{email}. Usuários gravados antes do índice caem na consulta por email
+    // (só o ID do documento) e o índice é criado em segundo plano para as próximas vezes.
+    @Override
+    public CompletableFuture<Long> findIdByEmail(String email) {
+        return executeWithRetry(EMAIL_INDEX_COLLECTION, "findIdByEmail", true, fs -> emailIndexRef(fs, email).get())
+                .thenCompose(snapshot -> {
+                    if (snapshot.exists()) {
+                        return CompletableFuture.completedFuture(snapshot.getLong("userId"));
+                    }
+                    return executeWithRetry(COLLECTION_NAME, "findIdByEmailQuery", true, fs -> fs.collection(COLLECTION_NAME)
+                            .whereEqualTo("email", email)
+                            .select(FieldPath.documentId())
+                            .limit(1)
+                            .get())
+                            .thenApply(query -> {
+                                if (query.isEmpty()) {
+                                    return null;
+                                }
+                                Long userId = Long.valueOf(query.getDocuments().get(0).getId());
+                                backfillEmailIndex(email, userId);
+                                return userId;
+                            });
+                });
+    }
+
+    private void backfillEmailIndex(String email, Long userId) {
+        executeWithRetry(EMAIL_INDEX_COLLECTION, "backfill", true, fs -> emailIndexRef(fs, email)
+                .set(Map.of("userId", userId)))
+                .exceptionally(error -> {
+                    log.warn("Falha ao criar o índice de email do usuário {}: {}", userId, error.toString());
+                    return null;
+                });
+    }
+
+    // IDs de documento não podem conter "/": o email é codificado
+    private static DocumentReference emailIndexRef(Firestore fs, String email) {
+        return fs.collection(EMAIL_INDEX_COLLECTION).document(URLEncoder.encode(email, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public CompletableFuture<User> findByEmail(String email) {
+        return executeWithRetry(COLLECTION_NAME, "findByEmail", true, fs -> fs.collection(COLLECTION_NAME)
+                .whereEqualTo("email", email)
+                .get())
+                .thenApply(snapshot -> {
+                    var docs = snapshot.getDocuments();
+                    return docs.isEmpty() ? null : docs.get(0).toObject(User.class);
+                });
+    }
+
+    @Override
+    public CompletableFuture<User> findById(Long id) {
+        return executeWithRetry(COLLECTION_NAME, "findById", true, fs -> fs.collection(COLLECTION_NAME)
+                .document(String.valueOf(id))
+                .get())
+                .thenApply(snap -> snap.exists() ? snap.toObject(User.class) : null);
+    }
+}
@@ -0,0 +1,136 @@
+package com.renan.auren.infrastructure.persistence.firestore;
+
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.renan.auren.domain.repositories.InventoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+// Migração única dos itens de inventário gravados com ID aleatório (antes do ID determinístico userId_itemId).
+// Cada documento legado é somado ao documento determinístico (que pode já existir por causa de resgates novos)
+// e removido, em uma transação: resgates concorrentes e várias instâncias rodando ao mesmo tempo não duplicam
+// quantidades. Ao terminar grava um marcador em migrations/, e as próximas inicializações fazem só essa leitura.
+@Component
+@ConditionalOnExpression("'${auren.storage:firestore}' == 'firestore' and '${auren.inventory.layout:documents}' == 'documents'")
+public class LegacyInventoryMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyInventoryMigration.class);
+
+    private static final String COLLECTION_NAME = "inventory";
+    private static final String MIGRATIONS_COLLECTION = "migrations";
+    private static final String MARKER_ID = "inventory-deterministic-ids";
+    private static final int PAGE_SIZE = 500;
+
+    @Autowired
+    private FirestoreClientManager clientManager;
+
+    @Value("${auren.inventory.legacy-migration.enabled:true}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        // Fora da thread de inicialização: a aplicação já atende enquanto a migração roda
+        Thread.ofVirtual().name("inventory-migration").start(() -> {
+            try {
+                migrate();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Falha na migração dos IDs de inventário; será tentada de novo na próxima inicialização", e);
+            }
+        });
+    }
+
+    // Retorna quantos documentos legados foram incorporados (0 se a migração já tinha sido concluída)
+    public int migrate() throws ExecutionException, InterruptedException {
+        Firestore firestore = clientManager.get();
+        DocumentReference marker = firestore.collection(MIGRATIONS_COLLECTION).document(MARKER_ID);
+        if (marker.get().get().exists()) {
+            return 0;
+        }
+
+        int merged = 0;
+        DocumentSnapshot last = null;
+        while (true) {
+            Query query = firestore.collection(COLLECTION_NAME)
+                    .orderBy(FieldPath.documentId())
+                    .limit(PAGE_SIZE);
+            if (last != null) {
+                query = query.startAfter(last);
+            }
+            QuerySnapshot page = query.get().get();
+            List<QueryDocumentSnapshot> docs = page.getDocuments();
+            for (QueryDocumentSnapshot doc : docs) {
+                Long userId = doc.getLong("userId");
+                String itemId = doc.getString("itemId");
+                if (userId == null || itemId == null) {
+                    continue;
+                }
+                String targetId = InventoryRepository.inventoryId(userId, itemId);
+                if (!targetId.equals(doc.getId()) && mergeLegacy(firestore, doc.getReference(),
+                        firestore.collection(COLLECTION_NAME).document(targetId))) {
+                    merged++;
+                }
+            }
+            if (docs.size() < PAGE_SIZE) {
+                break;
+            }
+            last = docs.get(docs.size() - 1);
+        }
+
+        marker.set(Map.of("completedAt", System.currentTimeMillis(), "merged", merged)).get();
+        log.info("Migração dos IDs de inventário concluída: {} documentos legados incorporados", merged);
+        return merged;
+    }
+
+    private boolean mergeLegacy(Firestore firestore, DocumentReference legacyRef, DocumentReference targetRef)
+            throws ExecutionException, InterruptedException {
+        return firestore.runTransaction(transaction -> {
+            List<DocumentSnapshot> snapshots = transaction.getAll(legacyRef, targetRef).get();
+            DocumentSnapshot legacy = snapshots.get(0);
+            DocumentSnapshot target = snapshots.get(1);
+            if (!legacy.exists()) {
+                return false;
+            }
+
+            if (target.exists()) {
+                Map<String, Object> updates = new HashMap<>();
+                updates.put("quantity", quantity(target) + quantity(legacy));
+                Long legacyAcquiredAt = legacy.getLong("acquiredAt");
+                Long targetAcquiredAt = target.getLong("acquiredAt");
+                if (legacyAcquiredAt != null && (targetAcquiredAt == null || legacyAcquiredAt < targetAcquiredAt)) {
+                    updates.put("acquiredAt", legacyAcquiredAt);
+                }
+                transaction.update(targetRef, updates);
+            } else {
+                transaction.create(targetRef, new HashMap<>(legacy.getData()));
+            }
+            transaction.delete(legacyRef);
+            return true;
+        }).get();
+    }
+
+    private static long quantity(DocumentSnapshot snapshot) {
+        Long quantity = snapshot.getLong("quantity");
+        return quantity != null ? quantity : 0L;
+    }
+}
@@ -0,0 +1,102 @@
+package com.renan.auren.infrastructure.persistence.memory;
+
+import com.renan.auren.domain.entities.InventoryItem;
+import com.renan.auren.domain.repositories.InventoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+@Repository
+@ConditionalOnProperty(name = "auren.storage", havingValue = "memory")
+public class InMemoryInventoryRepository implements InventoryRepository {
+
+    @Autowired
+    private SimulatedLatency latency;
+
+    // Chave primária é o ID determinístico (userId,itemId)
+    private final Map<String, InventoryItem> inventory = new ConcurrentHashMap<>();
+
+    // Índice secundário userId -> ids, ordenado para a paginação por cursor
+    private final Map<Long, NavigableSet<String>> userIndex = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<List<InventoryItem>> findByUserId(Long userId) {
+        return latency.supply(() -> {
+            List<InventoryItem> result = new ArrayList<>();
+            for (String id : userIndex.getOrDefault(userId, Collections.emptyNavigableSet())) {
+                InventoryItem item = inventory.get(id);
+                if (item != null) {
+                    result.add(copy(item));
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<InventoryItem>> findPageByUserId(Long userId, String afterId, int limit) {
+        return latency.supply(() -> {
+            NavigableSet<String> ids = userIndex.getOrDefault(userId, Collections.emptyNavigableSet());
+            if (afterId != null) {
+                ids = ids.tailSet(afterId, false);
+            }
+
+            List<InventoryItem> result = new ArrayList<>(limit);
+            for (String id : ids) {
+                if (result.size() == limit) {
+                    break;
+                }
+                InventoryItem item = inventory.get(id);
+                if (item != null) {
+                    result.add(copy(item));
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<InventoryItem> increment(InventoryItem inventoryItem, long amount) {
+        return latency.supply(() -> copy(apply(inventoryItem, amount)));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Throwable>> incrementAll(List<Increment> increments) {
+        return latency.supply(() -> {
+            for (Increment increment : increments) {
+                apply(increment.inventoryItem(), increment.amount());
+            }
+            return Map.of();
+        });
+    }
+
+    private InventoryItem apply(InventoryItem inventoryItem, long amount) {
+        String id = InventoryRepository.inventoryId(inventoryItem.getUserId(), inventoryItem.getItemId());
+
+        // Mesma semântica do Firestore: a criação grava o modelo, o incremento só altera a quantidade
+        InventoryItem stored = inventory.compute(id, (key, current) -> {
+            InventoryItem item = copy(current != null ? current : inventoryItem);
+            long quantity = (current != null && current.getQuantity() != null ? current.getQuantity() : 0L) + amount;
+            item.setId(key);
+            item.setQuantity(quantity);
+            return item;
+        });
+        userIndex.computeIfAbsent(stored.getUserId(), key -> new ConcurrentSkipListSet<>()).add(id);
+        return stored;
+    }
+
+    private static InventoryItem copy(InventoryItem item) {
+        return new InventoryItem(item.getId(), item.getUserId(), item.getItemId(), item.getItemName(),
+                item.getItemDescription(), item.getItemCategory(), item.getItemRarity(), item.getItemIcon(),
+                item.getQuantity(), item.getAcquiredAt());
+    }
+}
@@ -0,0 +1,138 @@
+package com.renan.auren.infrastructure.persistence.memory;
+
+import com.renan.auren.domain.entities.Item;
+import com.renan.auren.domain.repositories.ItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Repository
+@ConditionalOnProperty(name = "auren.storage", havingValue = "memory")
+public class InMemoryItemRepository implements ItemRepository {
+
+    @Autowired
+    private SimulatedLatency latency;
+
+    private final Map<String, Item> items = new ConcurrentHashMap<>();
+
+    // Índice secundário redeemCode -> id, somente para itens ativos
+    private final Map<String, String> redeemCodeIndex = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<Item> findActiveByRedeemCode(String redeemCode) {
+        return latency.supply(() -> {
+            String id = redeemCodeIndex.get(redeemCode);
+            Item item = id != null ? items.get(id) : null;
+            return item != null ? copy(item) : null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Item>> findActiveByRedeemCodes(Collection<String> redeemCodes) {
+        return latency.supply(() -> {
+            Map<String, Item> result = new HashMap<>();
+            for (String redeemCode : redeemCodes) {
+                String id = redeemCodeIndex.get(redeemCode);
+                Item item = id != null ? items.get(id) : null;
+                if (item != null) {
+                    result.put(redeemCode, copy(item));
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Item>> findByIds(Collection<String> ids) {
+        return latency.supply(() -> {
+            Map<String, Item> result = new HashMap<>();
+            for (String id : ids) {
+                Item item = items.get(id);
+                if (item != null) {
+                    result.put(id, copy(item));
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Item>> findAllActive() {
+        return latency.supply(() -> {
+            List<Item> result = new ArrayList<>();
+            for (Item item : items.values()) {
+                if (Boolean.TRUE.equals(item.getActive())) {
+                    result.add(copy(item));
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Item>> findAll() {
+        return latency.supply(() -> {
+            List<Item> result = new ArrayList<>();
+            for (Item item : items.values()) {
+                result.add(copy(item));
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Item> save(Item item) {
+        return latency.supply(() -> store(item));
+    }
+
+    @Override
+    public CatalogWriter catalogWriter() {
+        return new CatalogWriter() {
+            @Override
+            public CompletableFuture<Item> save(Item item) {
+                return latency.supply(() -> store(item));
+            }
+
+            @Override
+            public CompletableFuture<Void> close() {
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+    }
+
+    // Cria o item quando não tem ID ou substitui o existente, mantendo o índice de redeem codes coerente
+    private Item store(Item item) {
+        String id = item.getId() != null ? item.getId() : UUID.randomUUID().toString();
+        Item stored = copy(item);
+        stored.setId(id);
+        if (stored.getRedeemCode() != null) {
+            stored.setRedeemCode(stored.getRedeemCode().toUpperCase());
+        }
+        stored.setActive(item.getActive() != null ? item.getActive() : true);
+
+        Item previous = items.put(id, stored);
+        if (previous != null && previous.getRedeemCode() != null) {
+            redeemCodeIndex.remove(previous.getRedeemCode(), id);
+        }
+        if (stored.getRedeemCode() != null && stored.getActive()) {
+            redeemCodeIndex.put(stored.getRedeemCode(), id);
+        }
+
+        item.setId(id);
+        return item;
+    }
+
+    private static Item copy(Item item) {
+        return new Item(item.getId(), item.getName(), item.getDescription(), item.getCategory(),
+                item.getRarity(), item.getValue(), item.getIcon(), item.getRedeemCode(), item.getActive());
+    }
+}
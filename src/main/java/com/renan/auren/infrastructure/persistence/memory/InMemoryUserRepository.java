@@ -0,0 +1,77 @@
+package com.renan.auren.infrastructure.persistence.memory;
+
+import com.renan.auren.domain.entities.User;
+import com.renan.auren.domain.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Engine em memória usado em testes, benchmarks e desenvolvimento local sem Firestore
+@Repository
+@ConditionalOnProperty(name = "auren.storage", havingValue = "memory")
+public class InMemoryUserRepository implements UserRepository {
+
+    @Autowired
+    private SimulatedLatency latency;
+
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+
+    // Índice secundário email -> id
+    private final Map<String, Long> emailIndex = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastId = new AtomicLong();
+
+    @Override
+    public CompletableFuture<User> findById(Long id) {
+        return latency.supply(() -> {
+            User user = users.get(id);
+            return user != null ? copy(user) : null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<User> findByEmail(String email) {
+        return latency.supply(() -> {
+            Long id = emailIndex.get(email);
+            User user = id != null ? users.get(id) : null;
+            return user != null ? copy(user) : null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> findIdByEmail(String email) {
+        return latency.supply(() -> emailIndex.get(email));
+    }
+
+    @Override
+    public CompletableFuture<Void> save(User user) {
+        return latency.supply(() -> {
+            User stored = copy(user);
+            users.compute(stored.getId(), (id, previous) -> {
+                if (previous != null && previous.getEmail() != null
+                        && !previous.getEmail().equals(stored.getEmail())) {
+                    emailIndex.remove(previous.getEmail(), id);
+                }
+                if (stored.getEmail() != null) {
+                    emailIndex.put(stored.getEmail(), id);
+                }
+                return stored;
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> reserveIds(int count) {
+        return latency.supply(() -> lastId.getAndAdd(count) + 1);
+    }
+
+    private static User copy(User user) {
+        return new User(user.getId(), user.getNickname(), user.getEmail(), user.getPassword());
+    }
+}
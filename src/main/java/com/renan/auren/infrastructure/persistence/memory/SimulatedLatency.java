@@ -0,0 +1,37 @@
+package com.renan.auren.infrastructure.persistence.memory;
+
+import com.renan.auren.infrastructure.concurrent.Futures;
+import com.renan.auren.infrastructure.logging.MdcPropagation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Latência artificial por operação do engine em memória, para simular o round trip do Firestore
+// em testes de carga e benchmarks (desligada por padrão). Como no Firestore, a espera não ocupa
+// a thread de quem chamou: o resultado é entregue depois do atraso por um executor agendado.
+@Component
+@ConditionalOnProperty(name = "auren.storage", havingValue = "memory")
+public class SimulatedLatency {
+
+    private final Duration latency;
+    private final Executor delayed;
+
+    public SimulatedLatency(@Value("${auren.memory.latency:0ms}") Duration latency) {
+        this.latency = latency;
+        this.delayed = MdcPropagation.executor(
+                CompletableFuture.delayedExecutor(latency.toNanos(), TimeUnit.NANOSECONDS));
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> operation) {
+        if (latency.isZero()) {
+            return Futures.supply(operation);
+        }
+        return CompletableFuture.supplyAsync(operation, delayed);
+    }
+}
@@ -0,0 +1,16 @@
+package com.renan.auren.infrastructure.ratelimit;
+
+// Limite de chamadas excedido para o usuário ou IP: respondemos 429 antes de qualquer acesso ao Firestore
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
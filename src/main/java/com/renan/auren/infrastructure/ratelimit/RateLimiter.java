@@ -0,0 +1,93 @@
+package com.renan.auren.infrastructure.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Rate limit em processo para os endpoints que geram leituras pagas no Firestore (resgate e login).
+// Cada (escopo, chave) tem seu próprio token bucket; os baldes ficam em um cache Caffeine (mapa concorrente
+// particionado) e são descartados depois de um período ocioso em que já estariam cheios de novo.
+// Os limites valem por instância: com N réplicas o limite efetivo é N vezes maior.
+@Component
+public class RateLimiter {
+
+    public enum Scope {
+        REDEEM_USER("redeem-user", 10, Duration.ofSeconds(2)),
+        REDEEM_IP("redeem-ip", 60, Duration.ofMillis(200)),
+        LOGIN_EMAIL("login-email", 5, Duration.ofSeconds(12)),
+        LOGIN_IP("login-ip", 20, Duration.ofSeconds(1));
+
+        private final String key;
+        private final int defaultCapacity;
+        private final Duration defaultRefill;
+
+        Scope(String key, int defaultCapacity, Duration defaultRefill) {
+            this.key = key;
+            this.defaultCapacity = defaultCapacity;
+            this.defaultRefill = defaultRefill;
+        }
+    }
+
+    private record Limit(int capacity, long intervalNanos) {
+    }
+
+    private record BucketKey(Scope scope, String id) {
+    }
+
+    private final Map<Scope, Limit> limits = new EnumMap<>(Scope.class);
+    private final Map<Scope, Counter> rejections = new EnumMap<>(Scope.class);
+    private final Cache<BucketKey, TokenBucket> buckets;
+
+    // capacity = rajada máxima; refill-period = tempo para recuperar um token
+    public RateLimiter(
+            Environment environment,
+            MeterRegistry registry,
+            @Value("${auren.ratelimit.max-entries:100000}") long maxEntries) {
+
+        long idleNanos = 0;
+        for (Scope scope : Scope.values()) {
+            int capacity = environment.getProperty("auren.ratelimit." + scope.key + ".capacity",
+                    Integer.class, scope.defaultCapacity);
+            Duration refill = environment.getProperty("auren.ratelimit." + scope.key + ".refill-period",
+                    Duration.class, scope.defaultRefill);
+            limits.put(scope, new Limit(Math.max(1, capacity), refill.toNanos()));
+            idleNanos = Math.max(idleNanos, refill.toNanos() * capacity);
+
+            rejections.put(scope, Counter.builder("auren.ratelimit.rejected")
+                    .tag("scope", scope.key)
+                    .register(registry));
+        }
+
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(idleNanos, TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    // Consome um token de cada chave e lança RateLimitExceededException se alguma estiver sem tokens.
+    // Chaves nulas (ex.: IP desconhecido) não são limitadas.
+    public void check(Scope scope, String id) {
+        if (id == null) {
+            return;
+        }
+        Limit limit = limits.get(scope);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(new BucketKey(scope, id), key -> new TokenBucket(now));
+        long waitNanos = bucket.tryAcquire(now, limit.intervalNanos(), limit.capacity());
+        if (waitNanos > 0) {
+            rejections.get(scope).increment();
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            throw new RateLimitExceededException("Muitas tentativas, tente novamente em " + retryAfter + "s",
+                    retryAfter);
+        }
+    }
+}
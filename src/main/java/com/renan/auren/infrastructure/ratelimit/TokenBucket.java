@@ -0,0 +1,30 @@
+package com.renan.auren.infrastructure.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket sem locks na forma de GCRA: em vez de guardar tokens e o último reabastecimento, guarda um
+// único instante teórico (em nanos) e avança com um compareAndSet. Equivale a um balde de "capacity" tokens
+// que ganha um token a cada "interval".
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(long now) {
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    // 0 se a chamada foi aceita; caso contrário, quantos nanos faltam para o próximo token
+    long tryAcquire(long now, long interval, int capacity) {
+        long tolerance = interval * (capacity - 1);
+        while (true) {
+            long current = theoreticalArrival.get();
+            long base = Math.max(current, now);
+            if (base - now > tolerance) {
+                return base - tolerance - now;
+            }
+            if (theoreticalArrival.compareAndSet(current, base + interval)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.renan.auren.infrastructure.resilience;
+
+import com.google.api.gax.rpc.ApiException;
+import com.google.cloud.firestore.FirestoreException;
+import com.renan.auren.infrastructure.concurrent.Futures;
+import com.renan.auren.infrastructure.logging.MdcPropagation;
+import com.renan.auren.infrastructure.metrics.FirestoreMetrics;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Camada de resiliência das chamadas ao Firestore, na ordem:
+//   bulkhead do domínio -> retry (somente operações idempotentes) -> circuit breaker -> deadline da tentativa
+// - Bulkheads separados (users, items, inventory): leituras lentas de inventário não consomem as vagas do login.
+// - Deadline por operação (auren.resilience.deadline.<operação>, padrão auren.resilience.deadline.default).
+// - Retry com backoff exponencial e jitter apenas para status gRPC transitórios e timeouts.
+// - Um circuit breaker único: se o Firestore está degradado, todas as chamadas falham rápido até ele se recuperar.
+// Timeouts finais, circuito aberto e bulkhead cheio viram ServiceUnavailableException (503).
+@Component
+@ConditionalOnProperty(name = "auren.storage", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreResilience {
+
+    public enum Pool { USERS, ITEMS, INVENTORY }
+
+    // Falhas de infraestrutura; erros como NOT_FOUND ou INVALID_ARGUMENT não são repetidos nem abrem o circuito
+    private static final Set<String> TRANSIENT_CODES =
+            Set.of("UNAVAILABLE", "DEADLINE_EXCEEDED", "RESOURCE_EXHAUSTED", "ABORTED", "INTERNAL");
+
+    private final FirestoreMetrics metrics;
+    private final Environment environment;
+    private final Duration defaultDeadline;
+    private final Map<String, Duration> deadlines = new ConcurrentHashMap<>();
+    private final Map<Pool, Bulkhead> bulkheads = new EnumMap<>(Pool.class);
+    private final CircuitBreaker circuitBreaker;
+    private final Retry retry;
+    // Agenda novas tentativas e os prazos; propaga o MDC para que logs de retry e timeout tenham o correlationId
+    private final ScheduledExecutorService scheduler =
+            MdcPropagation.scheduledExecutor(1, Thread.ofPlatform().name("firestore-timer").daemon().factory());
+
+    public FirestoreResilience(
+            FirestoreMetrics metrics,
+            Environment environment,
+            @Value("${auren.resilience.deadline.default:5s}") Duration defaultDeadline,
+            @Value("${auren.resilience.retry.max-attempts:3}") int maxAttempts,
+            @Value("${auren.resilience.retry.initial-backoff:100ms}") Duration initialBackoff,
+            @Value("${auren.resilience.retry.max-backoff:2s}") Duration maxBackoff,
+            @Value("${auren.resilience.circuit-breaker.failure-rate:50}") float failureRate,
+            @Value("${auren.resilience.circuit-breaker.window:50}") int window,
+            @Value("${auren.resilience.circuit-breaker.open-duration:10s}") Duration openDuration,
+            @Value("${auren.resilience.bulkhead.users:64}") int usersConcurrency,
+            @Value("${auren.resilience.bulkhead.items:64}") int itemsConcurrency,
+            @Value("${auren.resilience.bulkhead.inventory:128}") int inventoryConcurrency) {
+
+        this.metrics = metrics;
+        this.environment = environment;
+        this.defaultDeadline = defaultDeadline;
+
+        this.retry = Retry.of("firestore", RetryConfig.custom()
+                .maxAttempts(maxAttempts)
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(initialBackoff, 2.0, 0.5, maxBackoff))
+                .retryOnException(FirestoreResilience::isTransient)
+                .failAfterMaxAttempts(false)
+                .build());
+
+        this.circuitBreaker = CircuitBreaker.of("firestore", CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRate)
+                .slidingWindowSize(window)
+                .minimumNumberOfCalls(Math.max(1, window / 2))
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(5)
+                .recordException(FirestoreResilience::isTransient)
+                .build());
+
+        bulkheads.put(Pool.USERS, bulkhead("users", usersConcurrency));
+        bulkheads.put(Pool.ITEMS, bulkhead("items", itemsConcurrency));
+        bulkheads.put(Pool.INVENTORY, bulkhead("inventory", inventoryConcurrency));
+    }
+
+    // Executa a operação com as proteções do domínio; cada tentativa também é medida em FirestoreMetrics.
+    // Operações não idempotentes (incrementos, IDs gerados no cliente) nunca são repetidas aqui.
+    public <T> CompletableFuture<T> call(Pool pool, String collection, String operation, boolean idempotent,
+                                         Supplier<CompletableFuture<T>> call) {
+        long deadlineMillis = deadline(operation).toMillis();
+        AtomicInteger attempts = new AtomicInteger();
+
+        Supplier<CompletionStage<T>> attempt = () -> {
+            if (attempts.incrementAndGet() > 1) {
+                metrics.retried(collection, operation);
+            }
+            // Como orTimeout, mas o prazo expira no agendador acima, que restaura o MDC da requisição
+            CompletableFuture<T> future = metrics.record(collection, operation, call);
+            ScheduledFuture<?> timeout = scheduler.schedule(
+                    () -> future.completeExceptionally(new TimeoutException()), deadlineMillis, TimeUnit.MILLISECONDS);
+            future.whenComplete((result, error) -> timeout.cancel(false));
+            return future;
+        };
+
+        Supplier<CompletionStage<T>> guarded = CircuitBreaker.decorateCompletionStage(circuitBreaker, attempt);
+        if (idempotent) {
+            guarded = Retry.decorateCompletionStage(retry, scheduler, guarded);
+        }
+        guarded = Bulkhead.decorateCompletionStage(bulkheads.get(pool), guarded);
+
+        CompletableFuture<T> result;
+        try {
+            result = guarded.get().toCompletableFuture();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.exceptionallyCompose(error -> CompletableFuture.failedFuture(translate(error, operation)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private Duration deadline(String operation) {
+        return deadlines.computeIfAbsent(operation, key ->
+                environment.getProperty("auren.resilience.deadline." + key, Duration.class, defaultDeadline));
+    }
+
+    // A vaga é pedida na thread de quem chama, que muitas vezes é um callback de outra chamada ao Firestore:
+    // sem espera, o bulkhead cheio falha na hora (503) em vez de bloquear essa thread
+    private static Bulkhead bulkhead(String name, int maxConcurrent) {
+        return Bulkhead.of(name, BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrent)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+    }
+
+    private static Throwable translate(Throwable error, String operation) {
+        Throwable cause = Futures.unwrap(error);
+        if (cause instanceof CallNotPermittedException) {
+            return new ServiceUnavailableException("Firestore indisponível (circuito aberto)", cause);
+        }
+        if (cause instanceof BulkheadFullException) {
+            return new ServiceUnavailableException("Muitas operações simultâneas no Firestore", cause);
+        }
+        if (cause instanceof TimeoutException) {
+            return new ServiceUnavailableException("Firestore não respondeu a tempo em " + operation, cause);
+        }
+        return cause;
+    }
+
+    static boolean isTransient(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof TimeoutException) {
+                return true;
+            }
+            if (current instanceof ApiException api) {
+                return TRANSIENT_CODES.contains(api.getStatusCode().getCode().name());
+            }
+            if (current instanceof FirestoreException firestore && firestore.getStatus() != null) {
+                return TRANSIENT_CODES.contains(firestore.getStatus().getCode().name());
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return false;
+    }
+}
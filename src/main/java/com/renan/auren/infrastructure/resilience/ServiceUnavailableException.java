@@ -0,0 +1,9 @@
+package com.renan.auren.infrastructure.resilience;
+
+// O Firestore não atendeu a tempo, o circuit breaker está aberto ou o bulkhead está cheio: respondemos 503
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
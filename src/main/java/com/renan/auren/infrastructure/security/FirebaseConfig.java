@@ -1,11 +1,13 @@
 package com.renan.auren.infrastructure.security;
 
 import com.google.auth.oauth2.GoogleCredentials;
-import com.google.cloud.firestore.Firestore;
+import com.google.auth.oauth2.ServiceAccountCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
-import com.google.firebase.cloud.FirestoreClient;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
@@ -14,13 +16,21 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Configuration
+@ConditionalOnProperty(name = "auren.storage", havingValue = "firestore", matchIfMissing = true)
 public class FirebaseConfig {
 
-    private static final Object lock = new Object();
+    private static final Logger log = LoggerFactory.getLogger(FirebaseConfig.class);
+
+    // ReentrantLock em vez de synchronized: inicializar o Firebase faz I/O e, dentro de um monitor,
+    // isso prenderia a carrier thread quando a requisição roda em virtual thread
+    private static final ReentrantLock lock = new ReentrantLock();
     private static volatile boolean initialized = false;
 
+    private FirebaseCredentials credentials;
+
     private static InputStream createServiceAccountStream() throws IOException {
         String firebaseConfig = System.getenv("FIREBASE_CONFIG");
 
@@ -43,113 +53,46 @@ public class FirebaseConfig {
         return resource.getInputStream();
     }
 
-    private static FirebaseOptions buildFirebaseOptions() throws IOException {
-        try (InputStream serviceAccount = createServiceAccountStream()) {
-            return FirebaseOptions.builder()
-                    .setCredentials(GoogleCredentials.fromStream(serviceAccount))
-                    .build();
+    // Projeto da conta de serviço; sem ele, o mesmo fallback do SDK (variáveis de ambiente do Google Cloud)
+    private static String resolveProjectId(GoogleCredentials credentials) {
+        if (credentials instanceof ServiceAccountCredentials serviceAccount && serviceAccount.getProjectId() != null) {
+            return serviceAccount.getProjectId();
         }
+        String projectId = System.getenv("GOOGLE_CLOUD_PROJECT");
+        return projectId != null && !projectId.isBlank() ? projectId : System.getenv("GCLOUD_PROJECT");
     }
 
     @PostConstruct
     public void initializeFirebase() throws IOException {
-        synchronized (lock) {
+        GoogleCredentials googleCredentials;
+        try (InputStream serviceAccount = createServiceAccountStream()) {
+            googleCredentials = GoogleCredentials.fromStream(serviceAccount);
+        }
+        credentials = new FirebaseCredentials(googleCredentials, resolveProjectId(googleCredentials));
+
+        lock.lock();
+        try {
             if (!initialized) {
                 if (FirebaseApp.getApps().isEmpty()) {
-                    FirebaseOptions options = buildFirebaseOptions();
-                    FirebaseApp.initializeApp(options);
-                    System.out.println("Firebase inicializado com sucesso");
+                    FirebaseOptions.Builder options = FirebaseOptions.builder().setCredentials(googleCredentials);
+                    if (credentials.projectId() != null) {
+                        options.setProjectId(credentials.projectId());
+                    }
+                    FirebaseApp.initializeApp(options.build());
+                    log.info("Firebase inicializado com sucesso");
                 } else {
-                    System.out.println("Firebase já estava inicializado");
+                    log.info("Firebase já estava inicializado");
                 }
                 initialized = true;
             }
+        } finally {
+            lock.unlock();
         }
     }
 
+    // Disponível depois de initializeFirebase: quem depende deste bean também encontra o FirebaseApp pronto
     @Bean
-    public Firestore firestore() {
-        return getFirestoreInstance();
-    }
-
-    private Firestore getFirestoreInstance() {
-        // Garante que o Firebase está inicializado
-        if (!initialized) {
-            synchronized (lock) {
-                if (!initialized) {
-                    try {
-                        initializeFirebase();
-                    } catch (IOException e) {
-                        throw new RuntimeException("Erro ao inicializar Firebase", e);
-                    }
-                }
-            }
-        }
-
-        FirebaseApp app;
-        try {
-            app = FirebaseApp.getInstance();
-        } catch (IllegalStateException e) {
-            // Se não encontrar, tenta obter a instância padrão
-            if (FirebaseApp.getApps().isEmpty()) {
-                try {
-                    initializeFirebase();
-                    app = FirebaseApp.getInstance();
-                } catch (IOException ioException) {
-                    throw new RuntimeException("Erro ao inicializar Firebase", ioException);
-                }
-            } else {
-                app = FirebaseApp.getApps().get(0);
-            }
-        }
-
-        if (app == null) {
-            throw new IllegalStateException("FirebaseApp não foi inicializado corretamente");
-        }
-
-        return FirestoreClient.getFirestore(app);
-    }
-
-    public static Firestore getValidFirestore() {
-        try {
-            FirebaseApp app;
-            if (FirebaseApp.getApps().isEmpty()) {
-                throw new IllegalStateException("Firebase não foi inicializado");
-            }
-            app = FirebaseApp.getApps().get(0);
-
-            return FirestoreClient.getFirestore(app);
-        } catch (Exception e) {
-            System.err.println("Erro ao obter Firestore válido: " + e.getMessage());
-            return createNewFirestoreInstance();
-        }
-    }
-
-    public static Firestore getNewFirestoreInstance() {
-        return createNewFirestoreInstance();
-    }
-
-    private static Firestore createNewFirestoreInstance() {
-        synchronized (lock) {
-            try {
-                FirebaseOptions options = buildFirebaseOptions();
-
-                String newAppName = "auren-app-" + System.currentTimeMillis();
-
-                FirebaseApp newApp;
-                try {
-                    newApp = FirebaseApp.getInstance(newAppName);
-                } catch (IllegalStateException e) {
-                    newApp = FirebaseApp.initializeApp(options, newAppName);
-                    System.out.println("Nova instância do FirebaseApp criada: " + newAppName);
-                }
-
-                return FirestoreClient.getFirestore(newApp);
-            } catch (Exception e) {
-                System.err.println("Erro ao criar nova instância do Firestore: " + e.getMessage());
-                e.printStackTrace();
-                throw new RuntimeException("Não foi possível criar uma instância válida do Firestore", e);
-            }
-        }
+    public FirebaseCredentials firebaseCredentials() {
+        return credentials;
     }
 }
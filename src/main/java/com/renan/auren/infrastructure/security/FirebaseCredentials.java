@@ -0,0 +1,8 @@
+package com.renan.auren.infrastructure.security;
+
+import com.google.auth.oauth2.GoogleCredentials;
+
+// Credenciais e projeto lidos uma única vez pelo FirebaseConfig; quem cria clientes do Google
+// (Firestore) ou precisa do projeto (tokens do Firebase) recebe este bean em vez de consultar o FirebaseApp
+public record FirebaseCredentials(GoogleCredentials credentials, String projectId) {
+}
@@ -0,0 +1,111 @@
+package com.renan.auren.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import com.renan.auren.infrastructure.cache.Expiries;
+import com.renan.auren.infrastructure.metrics.AuthMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+// Verificação de Firebase ID tokens com cache: clientes reenviam o mesmo token várias vezes
+// durante a validade dele, então o email resolvido fica guardado até o "exp" do token.
+@Component
+public class FirebaseTokenVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(FirebaseTokenVerifier.class);
+
+    private record VerifiedToken(String email, long expiresAtMillis) {
+    }
+
+    private final Cache<ByteBuffer, VerifiedToken> verifiedTokens;
+    private final AuthMetrics metrics;
+    // Ausente no engine em memória, em que o Firebase não é inicializado
+    private final ObjectProvider<FirebaseCredentials> firebaseCredentials;
+
+    public FirebaseTokenVerifier(@Value("${auren.cache.firebase-tokens.max-size:50000}") long maxSize,
+                                 AuthMetrics metrics,
+                                 ObjectProvider<FirebaseCredentials> firebaseCredentials) {
+        this.metrics = metrics;
+        this.firebaseCredentials = firebaseCredentials;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiries.until(VerifiedToken::expiresAtMillis))
+                .build();
+    }
+
+    // Retorna o email do token (pode ser null se o token não tiver email)
+    public String verifyAndGetEmail(String idToken) throws FirebaseAuthException {
+        ByteBuffer key = TokenDigest.sha256(idToken);
+
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            metrics.cacheHit(AuthMetrics.FIREBASE);
+            return cached.email();
+        }
+
+        long start = System.nanoTime();
+        FirebaseToken decoded;
+        try {
+            decoded = FirebaseAuth.getInstance().verifyIdToken(idToken);
+        } catch (FirebaseAuthException | RuntimeException e) {
+            metrics.verification(AuthMetrics.FIREBASE, "failure", start);
+            throw e;
+        }
+        metrics.verification(AuthMetrics.FIREBASE, "success", start);
+        String email = decoded.getEmail();
+
+        Object exp = decoded.getClaims().get("exp");
+        if (email != null && exp instanceof Number expSeconds) {
+            verifiedTokens.put(key, new VerifiedToken(email, TimeUnit.SECONDS.toMillis(expSeconds.longValue())));
+        }
+        return email;
+    }
+
+    // O SDK só busca as chaves públicas do Google quando a verificação de assinatura precisa delas,
+    // e nesse caso quem paga o fetch é a requisição de login. Aqui verificamos periodicamente um token
+    // de sonda com conteúdo válido e assinatura falsa: o SDK renova as chaves (se estiverem perto de
+    // expirar) antes de rejeitar a assinatura, e as requisições reais sempre encontram o cache quente.
+    @Scheduled(initialDelayString = "0", fixedDelayString = "${auren.firebase.key-refresh-interval:60s}")
+    public void prefetchSigningKeys() {
+        FirebaseCredentials firebase = firebaseCredentials.getIfAvailable();
+        if (firebase == null || FirebaseApp.getApps().isEmpty()) {
+            return;
+        }
+
+        try {
+            FirebaseAuth.getInstance().verifyIdToken(buildProbeToken(firebase.projectId()));
+        } catch (FirebaseAuthException expected) {
+            // Esperado: a assinatura da sonda nunca é válida
+        } catch (RuntimeException e) {
+            log.warn("Falha ao pré-carregar as chaves públicas do Firebase: {}", e.getMessage());
+        }
+    }
+
+    private static String buildProbeToken(String projectId) {
+        long now = System.currentTimeMillis() / 1000;
+
+        String header = "{\"alg\":\"RS256\",\"kid\":\"auren-key-prefetch\",\"typ\":\"JWT\"}";
+        String payload = "{\"aud\":\"" + projectId + "\","
+                + "\"iss\":\"https://securetoken.google.com/" + projectId + "\","
+                + "\"sub\":\"auren-key-prefetch\","
+                + "\"iat\":" + now + ",\"exp\":" + (now + 300) + "}";
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(new byte[]{0});
+    }
+}
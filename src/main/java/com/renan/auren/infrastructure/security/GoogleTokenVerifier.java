@@ -0,0 +1,176 @@
+package com.renan.auren.infrastructure.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.renan.auren.infrastructure.cache.Expiries;
+import com.renan.auren.infrastructure.metrics.AuthMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Valida tokens do Google OAuth (ID token via tokeninfo ou access token via userinfo).
+// Os dois endpoints são consultados em paralelo usando um HttpClient compartilhado (com pool de conexões)
+// e vale a primeira resposta com email. O email resolvido fica em cache durante a validade do token.
+@Component
+public class GoogleTokenVerifier {
+
+    private record ResolvedToken(String email, long expiresAtMillis, boolean idToken) {
+    }
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI tokenInfoUri;
+    private final URI userInfoUri;
+    private final Duration requestTimeout;
+    private final Duration accessTokenTtl;
+    private final Cache<ByteBuffer, ResolvedToken> resolvedTokens;
+    private final AuthMetrics metrics;
+
+    public GoogleTokenVerifier(
+            ObjectMapper objectMapper,
+            AuthMetrics metrics,
+            @Value("${auren.google.tokeninfo-url:https://oauth2.googleapis.com/tokeninfo}") String tokenInfoUrl,
+            @Value("${auren.google.userinfo-url:https://www.googleapis.com/oauth2/v2/userinfo}") String userInfoUrl,
+            @Value("${auren.google.timeout:5s}") Duration requestTimeout,
+            @Value("${auren.cache.google-tokens.max-size:50000}") long maxSize,
+            @Value("${auren.cache.google-tokens.access-token-ttl:5m}") Duration accessTokenTtl) {
+
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.tokenInfoUri = URI.create(tokenInfoUrl);
+        this.userInfoUri = URI.create(userInfoUrl);
+        this.requestTimeout = requestTimeout;
+        this.accessTokenTtl = accessTokenTtl;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .version(HttpClient.Version.HTTP_2)
+                .build();
+        this.resolvedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiries.until(ResolvedToken::expiresAtMillis))
+                .build();
+    }
+
+    // Completa com o email do token, ou com erro se nenhum dos endpoints aceitar o token
+    public CompletableFuture<String> resolveEmail(String token) {
+        ByteBuffer key = TokenDigest.sha256(token);
+
+        ResolvedToken cached = resolvedTokens.getIfPresent(key);
+        if (cached != null) {
+            metrics.cacheHit(idTokenOrAccessToken(cached));
+            return CompletableFuture.completedFuture(cached.email());
+        }
+
+        HttpRequest tokenInfoRequest = HttpRequest.newBuilder(
+                        URI.create(tokenInfoUri + "?id_token=" + URLEncoder.encode(token, StandardCharsets.UTF_8)))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+        HttpRequest userInfoRequest = HttpRequest.newBuilder(userInfoUri)
+                .timeout(requestTimeout)
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+
+        CompletableFuture<ResolvedToken> asIdToken = send(tokenInfoRequest, true);
+        CompletableFuture<ResolvedToken> asAccessToken = send(userInfoRequest, false);
+
+        return firstSuccess(asIdToken, asAccessToken)
+                .thenApply(resolved -> {
+                    resolvedTokens.put(key, resolved);
+                    return resolved.email();
+                });
+    }
+
+    private CompletableFuture<ResolvedToken> send(HttpRequest request, boolean idToken) {
+        long start = System.nanoTime();
+        String path = idToken ? AuthMetrics.TOKENINFO : AuthMetrics.USERINFO;
+
+        CompletableFuture<ResolvedToken> resolved = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new GoogleTokenException("HTTP " + response.statusCode() + " em " + request.uri().getPath());
+                    }
+                    return parse(response.body(), idToken);
+                });
+        // O endpoint que perde a corrida é cancelado: conta como "cancelled", não como falha
+        resolved.whenComplete((value, error) -> metrics.verification(path,
+                error == null ? "success" : error instanceof CancellationException ? "cancelled" : "failure", start));
+        return resolved;
+    }
+
+    private static String idTokenOrAccessToken(ResolvedToken token) {
+        return token.idToken() ? AuthMetrics.TOKENINFO : AuthMetrics.USERINFO;
+    }
+
+    private ResolvedToken parse(byte[] body, boolean idToken) {
+        JsonNode json;
+        try {
+            json = objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new GoogleTokenException("Resposta inválida do Google: " + e.getMessage());
+        }
+
+        if (json.has("error")) {
+            String errorDescription = json.has("error_description")
+                    ? json.get("error_description").asText()
+                    : json.get("error").asText();
+            throw new GoogleTokenException(errorDescription);
+        }
+        if (!json.hasNonNull("email")) {
+            throw new GoogleTokenException("Email não encontrado no token do Google");
+        }
+
+        // tokeninfo informa o "exp" do ID token; o userinfo não, então usamos um TTL curto
+        long expiresAt = System.currentTimeMillis() + accessTokenTtl.toMillis();
+        if (idToken && json.hasNonNull("exp")) {
+            expiresAt = TimeUnit.SECONDS.toMillis(json.get("exp").asLong());
+        }
+        return new ResolvedToken(json.get("email").asText(), expiresAt, idToken);
+    }
+
+    // Completa com o primeiro futuro bem-sucedido; só falha se todos falharem
+    private static <T> CompletableFuture<T> firstSuccess(CompletableFuture<T> first, CompletableFuture<T> second) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+
+        for (CompletableFuture<T> candidate : List.of(first, second)) {
+            candidate.whenComplete((value, error) -> {
+                if (error == null) {
+                    result.complete(value);
+                } else if (failures.incrementAndGet() == 2) {
+                    result.completeExceptionally(new GoogleTokenException(
+                            "Não foi possível validar o token como ID token nem como access token"));
+                }
+            });
+        }
+
+        result.whenComplete((value, error) -> {
+            first.cancel(false);
+            second.cancel(false);
+        });
+        return result;
+    }
+
+    public static class GoogleTokenException extends RuntimeException {
+        public GoogleTokenException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.renan.auren.infrastructure.security;
+
+import com.renan.auren.infrastructure.logging.MdcPropagation;
+import com.renan.auren.infrastructure.resilience.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Hash e verificação de senhas com bcrypt em um executor próprio e limitado: cada operação custa dezenas de
+// milissegundos de CPU, então uma rajada de logins ocupa no máximo "threads" núcleos e, com a fila cheia,
+// é recusada com 503 em vez de acumular requisições esperando.
+@Component
+public class PasswordHasher {
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    // Mesmo executor, levando o MDC (correlationId) de quem pediu o hash
+    private final Executor mdcExecutor;
+
+    public PasswordHasher(
+            @Value("${auren.password.bcrypt-cost:10}") int cost,
+            @Value("${auren.password.threads:0}") int threads,
+            @Value("${auren.password.queue-capacity:256}") int queueCapacity) {
+
+        this.encoder = new BCryptPasswordEncoder(cost);
+
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.mdcExecutor = MdcPropagation.executor(executor);
+    }
+
+    public CompletableFuture<String> hash(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    // Senhas gravadas antes do bcrypt estão em texto puro: são comparadas em tempo constante
+    // e devem ser regravadas (needsRehash) após um login bem-sucedido
+    public CompletableFuture<Boolean> matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (!isBcrypt(storedPassword)) {
+            return CompletableFuture.completedFuture(MessageDigest.isEqual(
+                    rawPassword.getBytes(StandardCharsets.UTF_8), storedPassword.getBytes(StandardCharsets.UTF_8)));
+        }
+        return submit(() -> encoder.matches(rawPassword, storedPassword));
+    }
+
+    // Verdadeiro para senhas em texto puro ou com custo menor que o configurado
+    public boolean needsRehash(String storedPassword) {
+        return !isBcrypt(storedPassword) || encoder.upgradeEncoding(storedPassword);
+    }
+
+    private static boolean isBcrypt(String storedPassword) {
+        return storedPassword.length() == 60 && storedPassword.matches("^\\$2[aby]?\\$\\d\\d\\$.*");
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, mdcExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new ServiceUnavailableException("Muitos logins simultâneos, tente novamente", e));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,5 +1,6 @@
 package com.renan.auren.infrastructure.security;
 
+import com.renan.auren.infrastructure.metrics.AuthMetrics;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -17,13 +18,18 @@ public class SecurityFilter extends HttpFilter {
     @Autowired
     private TokenService tokenService;
 
+    @Autowired
+    private AuthMetrics metrics;
+
     @Override
     protected void doFilter(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
             throws IOException, ServletException {
 
+        long start = System.nanoTime();
         String auth = req.getHeader("Authorization");
 
         if (auth == null || !auth.startsWith("Bearer ")) {
+            metrics.filter("anonymous", start);
             chain.doFilter(req, res);
             return;
         }
@@ -35,9 +41,11 @@ public class SecurityFilter extends HttpFilter {
             req.setAttribute("userEmail", claims.getSubject());
             req.setAttribute("userId", claims.get("id", Long.class));
         } catch (Exception e) {
+            metrics.filter("rejected", start);
             res.setStatus(401);
             return;
         }
+        metrics.filter("authenticated", start);
 
         chain.doFilter(req, res);
     }
@@ -0,0 +1,43 @@
+package com.renan.auren.infrastructure.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// SHA-256 de tokens, usado como chave dos caches de tokens validados (o token em si não fica em memória)
+// e para identificar tokens nos logs sem expor o conteúdo
+public final class TokenDigest {
+
+    private static final MessageDigest PROTOTYPE;
+
+    static {
+        try {
+            PROTOTYPE = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private TokenDigest() {
+    }
+
+    public static ByteBuffer sha256(String token) {
+        try {
+            MessageDigest md = (MessageDigest) PROTOTYPE.clone();
+            return ByteBuffer.wrap(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("MessageDigest não suporta clone", e);
+        }
+    }
+
+    // Identificador do token para logs: prefixo do SHA-256 e tamanho, nunca o conteúdo
+    public static String fingerprint(String token) {
+        if (token == null) {
+            return "<nenhum>";
+        }
+        byte[] digest = sha256(token).array();
+        return "sha256:" + HexFormat.of().formatHex(digest, 0, 6) + " (" + token.length() + " chars)";
+    }
+}
@@ -1,12 +1,18 @@
 package com.renan.auren.infrastructure.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.renan.auren.infrastructure.cache.Expiries;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
@@ -16,6 +22,24 @@ public class TokenService {
 
     private final SecretKey secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
 
+    // O parser do jjwt é imutável e thread-safe: criado uma única vez
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(secretKey)
+            .build();
+
+    // Tokens já validados, indexados pelo SHA-256 do token e mantidos no máximo até o "exp".
+    // As Claims devolvidas são compartilhadas entre chamadas e devem ser tratadas como somente leitura.
+    private final Cache<ByteBuffer, Claims> verifiedTokens;
+
+    public TokenService(@Value("${auren.cache.verified-tokens.max-size:50000}") long maxSize) {
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                // Sem "exp" o token não é cacheado (expira na hora)
+                .expireAfter(Expiries.<ByteBuffer, Claims>until(claims ->
+                        claims.getExpiration() != null ? claims.getExpiration().getTime() : 0))
+                .build();
+    }
+
     // Gera token JWT da API
     public String generateToken(String email, Long userId) {
 
@@ -25,19 +49,24 @@ public class TokenService {
         return Jwts.builder()
                 .setSubject(email)
                 .claim("id", userId)
-                .setIssuedAt(new Date())
+                .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(expiration))
                 .signWith(secretKey)
                 .compact();
     }
 
-    // Valida o token
+    // Valida o token (usa o cache para não repetir HMAC e parse do JSON)
     public Claims validateToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        ByteBuffer key = TokenDigest.sha256(token);
+
+        Claims cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        verifiedTokens.put(key, claims);
+        return claims;
     }
 
     public String getEmailFromToken(String token) {
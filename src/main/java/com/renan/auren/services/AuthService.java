@@ -1,56 +1,95 @@
 package com.renan.auren.services;
 
-import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
-import com.google.firebase.auth.FirebaseToken;
 import com.renan.auren.domain.entities.User;
 import com.renan.auren.dtos.FirebaseLoginRequest;
 import com.renan.auren.dtos.LoginRequest;
 import com.renan.auren.dtos.LoginResponse;
+import com.renan.auren.infrastructure.concurrent.Futures;
+import com.renan.auren.infrastructure.resilience.ServiceUnavailableException;
+import com.renan.auren.infrastructure.security.FirebaseTokenVerifier;
+import com.renan.auren.infrastructure.security.GoogleTokenVerifier;
+import com.renan.auren.infrastructure.security.PasswordHasher;
 import com.renan.auren.infrastructure.security.TokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Service
 public class AuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
+    private static final String LEGACY_FIREBASE_PASSWORD = "firebase";
+
     @Autowired
     private UserService userService;
 
     @Autowired
     private TokenService tokenService;
 
+    @Autowired
+    private FirebaseTokenVerifier firebaseTokenVerifier;
 
-    // LOGIN NORMAL (email + senha)
-    public ResponseEntity<?> login(LoginRequest request)
-            throws ExecutionException, InterruptedException {
-
-        String email = request.email();
-        String password = request.password();
+    @Autowired
+    private GoogleTokenVerifier googleTokenVerifier;
 
-        User user = userService.getUserByEmail(email);
+    @Autowired
+    private PasswordHasher passwordHasher;
 
-        if (user == null) {
-            return ResponseEntity.status(401).body("Usuário não encontrado");
-        }
 
-        if (!user.getPassword().equals(password)) {
-            return ResponseEntity.status(401).body("Senha incorreta");
-        }
+    // LOGIN NORMAL (email + senha)
+    // A verificação do bcrypt roda no executor do PasswordHasher, fora da thread da requisição
+    public CompletableFuture<ResponseEntity<?>> loginAsync(LoginRequest request) {
+        String email = request.email();
+        String password = request.password();
 
-        String jwt = tokenService.generateToken(user.getEmail(), user.getId());
+        return userService.getUserByEmailAsync(email)
+                .thenCompose(user -> {
+                    if (user == null) {
+                        return CompletableFuture.completedFuture(
+                                ResponseEntity.status(401).body("Usuário não encontrado"));
+                    }
+
+                    String stored = user.getPassword();
+                    // Contas criadas pelo Firebase gravavam o texto "firebase" como senha
+                    if (stored == null || LEGACY_FIREBASE_PASSWORD.equals(stored)) {
+                        return CompletableFuture.completedFuture(ResponseEntity.status(401).body("Senha incorreta"));
+                    }
+
+                    return passwordHasher.matches(password, stored)
+                            .thenApply(matches -> {
+                                if (!matches) {
+                                    return ResponseEntity.status(401).body("Senha incorreta");
+                                }
+                                if (passwordHasher.needsRehash(stored)) {
+                                    rehash(user, password);
+                                }
+
+                                String jwt = tokenService.generateToken(user.getEmail(), user.getId());
+                                return ResponseEntity.ok(new LoginResponse(user, jwt));
+                            });
+                });
+    }
 
-        return ResponseEntity.ok(new LoginResponse(user, jwt));
+    public ResponseEntity<?> login(LoginRequest request) throws ExecutionException, InterruptedException {
+        return Futures.await(loginAsync(request));
+    }
 
+    // Em segundo plano: uma falha aqui não impede o login, a senha é regravada na próxima vez
+    private void rehash(User user, String password) {
+        passwordHasher.hash(password)
+                .thenCompose(hash -> userService.updatePasswordHashAsync(user, hash))
+                .exceptionally(error -> {
+                    log.warn("Falha ao regravar o hash da senha do usuário {}: {}", user.getId(),
+                            Futures.unwrap(error).toString());
+                    return null;
+                });
     }
 
     // LOGIN VIA FIREBASE/GOOGLE OAUTH
@@ -68,11 +107,11 @@ public class AuthService {
 
             // Tenta primeiro como Firebase ID token
             try {
-                FirebaseToken decoded = FirebaseAuth.getInstance().verifyIdToken(token);
-                email = decoded.getEmail();
-                System.out.println("Token validado como Firebase ID token. Email: " + email);
+                email = firebaseTokenVerifier.verifyAndGetEmail(token);
+                log.debug("Token validado como Firebase ID token");
             } catch (FirebaseAuthException e) {
-                System.out.println("Token não é Firebase ID token, tentando validar como Google OAuth token...");
+                log.debug("Token não é Firebase ID token ({}), tentando validar como Google OAuth token",
+                        e.getAuthErrorCode());
                 // Se falhar, tenta validar como Google OAuth token
                 email = validateGoogleOAuthToken(token);
             }
@@ -93,139 +132,24 @@ public class AuthService {
 
         } catch (FirebaseAuthException e) {
             return ResponseEntity.status(401).body("Token inválido: " + e.getMessage());
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Erro ao processar login via Firebase", e);
             return ResponseEntity.status(500).body("Erro ao processar login: " + e.getMessage());
         }
 
     }
 
-    // Valida token do Google OAuth diretamente
+    // Valida token do Google OAuth diretamente (tokeninfo e userinfo em paralelo, com cache)
     private String validateGoogleOAuthToken(String token) throws Exception {
         try {
-            // Primeiro tenta como ID token
-            String tokenInfoUrl = "https://oauth2.googleapis.com/tokeninfo?id_token=" + token;
-            System.out.println("Tentando validar como ID token...");
-            
-            URL url = new URL(tokenInfoUrl);
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(5000);
-            conn.setReadTimeout(5000);
-
-            int responseCode = conn.getResponseCode();
-            
-            String responseBody;
-            if (responseCode == 200) {
-                BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                in.close();
-                responseBody = response.toString();
-                
-                ObjectMapper mapper = new ObjectMapper();
-                JsonNode jsonNode = mapper.readTree(responseBody);
-                
-                // Verifica se o token é válido
-                if (jsonNode.has("error")) {
-                    String errorDescription = jsonNode.has("error_description") 
-                        ? jsonNode.get("error_description").asText() 
-                        : jsonNode.get("error").asText();
-                    System.out.println("Erro na validação do ID token: " + errorDescription);
-                    // Se falhar como ID token, tenta como access token
-                    return validateAsAccessToken(token);
-                }
-
-                // Retorna o email do token
-                if (jsonNode.has("email")) {
-                    String email = jsonNode.get("email").asText();
-                    System.out.println("Email extraído do ID token: " + email);
-                    return email;
-                }
-            } else {
-                // Lê a resposta de erro
-                BufferedReader errorReader = new BufferedReader(new InputStreamReader(conn.getErrorStream()));
-                String inputLine;
-                StringBuilder errorResponse = new StringBuilder();
-                while ((inputLine = errorReader.readLine()) != null) {
-                    errorResponse.append(inputLine);
-                }
-                errorReader.close();
-                responseBody = errorResponse.toString();
-                
-                System.out.println("Erro ao validar ID token - HTTP " + responseCode);
-                System.out.println("Resposta: " + responseBody);
-                
-                // Se falhar como ID token, tenta como access token
-                return validateAsAccessToken(token);
-            }
-            
-            throw new Exception("Email não encontrado no token do Google");
-        } catch (Exception e) {
-            System.err.println("Erro ao validar token do Google: " + e.getMessage());
-            // Tenta como access token como último recurso
-            try {
-                return validateAsAccessToken(token);
-            } catch (Exception e2) {
-                e.printStackTrace();
-                throw new Exception("Erro ao validar token do Google: " + e.getMessage());
-            }
-        }
-    }
-    
-    // Valida token como access token e busca informações do usuário
-    private String validateAsAccessToken(String accessToken) throws Exception {
-        try {
-            System.out.println("Tentando validar como access token...");
-            // Usa o endpoint userinfo para obter informações do usuário com access token
-            URL url = new URL("https://www.googleapis.com/oauth2/v2/userinfo");
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            conn.setRequestProperty("Authorization", "Bearer " + accessToken);
-            conn.setConnectTimeout(5000);
-            conn.setReadTimeout(5000);
-
-            int responseCode = conn.getResponseCode();
-            
-            if (responseCode == 200) {
-                BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                in.close();
-                
-                ObjectMapper mapper = new ObjectMapper();
-                JsonNode jsonNode = mapper.readTree(response.toString());
-                
-                if (jsonNode.has("email")) {
-                    String email = jsonNode.get("email").asText();
-                    System.out.println("Email extraído do access token: " + email);
-                    return email;
-                }
-            } else {
-                BufferedReader errorReader = new BufferedReader(new InputStreamReader(conn.getErrorStream()));
-                String inputLine;
-                StringBuilder errorResponse = new StringBuilder();
-                while ((inputLine = errorReader.readLine()) != null) {
-                    errorResponse.append(inputLine);
-                }
-                errorReader.close();
-                
-                System.out.println("Erro ao validar access token - HTTP " + responseCode);
-                System.out.println("Resposta: " + errorResponse.toString());
-            }
-            
-            throw new Exception("Não foi possível validar o token como ID token nem como access token");
-        } catch (Exception e) {
-            System.err.println("Erro ao validar access token: " + e.getMessage());
-            throw e;
+            return googleTokenVerifier.resolveEmail(token).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.info("Token do Google recusado: {}", cause.getMessage());
+            throw new Exception("Erro ao validar token do Google: " + cause.getMessage());
         }
     }
 
-
 }
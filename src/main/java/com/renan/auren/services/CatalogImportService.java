@@ -0,0 +1,348 @@
+package com.renan.auren.services;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renan.auren.domain.entities.Item;
+import com.renan.auren.domain.repositories.ItemRepository;
+import com.renan.auren.dtos.CatalogImportReport;
+import com.renan.auren.infrastructure.cache.CatalogSnapshot;
+import com.renan.auren.infrastructure.cache.ItemCache;
+import com.renan.auren.infrastructure.cache.RedeemCodeCache;
+import com.renan.auren.infrastructure.concurrent.Futures;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Importação em massa do catálogo: lê os itens em streaming (JSON/NDJSON ou CSV), compara com o catálogo
+// atual carregado em uma única consulta e grava somente o que mudou pelo writer em massa do repositório.
+// O número de gravações em andamento é limitado: quando o limite é atingido a leitura do arquivo espera.
+@Service
+public class CatalogImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RedeemCodeCache redeemCodeCache;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Value("${auren.catalog.import.max-in-flight:2000}")
+    private int maxInFlight;
+
+    @Value("${auren.catalog.import.progress-interval:5000}")
+    private int progressInterval;
+
+    // Aceita um array JSON de itens ou um item por linha (NDJSON)
+    public CatalogImportReport importJson(InputStream input)
+            throws IOException, ExecutionException, InterruptedException {
+        try (MappingIterator<Item> items = objectMapper.readerFor(Item.class).readValues(input)) {
+            return importItems(new JsonItemIterator(items));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // CSV com cabeçalho; colunas reconhecidas: name, description, category, rarity, value, icon, redeemCode, active
+    public CatalogImportReport importCsv(InputStream input)
+            throws IOException, ExecutionException, InterruptedException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            return importItems(new CsvItemIterator(reader));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public CatalogImportReport importItems(Iterator<Item> items) throws ExecutionException, InterruptedException {
+        long start = System.nanoTime();
+        if (!items.hasNext()) {
+            // Nada a importar: evita a leitura do catálogo inteiro
+            return new CatalogImportReport(0, 0, 0, 0, 0, 0, 0, 0, List.of());
+        }
+
+        Map<String, Item> existing = new HashMap<>();
+        for (Item item : Futures.await(itemRepository.findAll())) {
+            if (item.getRedeemCode() != null) {
+                existing.put(RedeemCodeCache.normalize(item.getRedeemCode()), item);
+            }
+        }
+
+        Set<String> seen = new HashSet<>();
+        Queue<String> errors = new ConcurrentLinkedQueue<>();
+        AtomicInteger errorCount = new AtomicInteger();
+        AtomicLong created = new AtomicLong();
+        AtomicLong updated = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long read = 0;
+        long unchanged = 0;
+        long skipped = 0;
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ItemRepository.CatalogWriter writer = itemRepository.catalogWriter();
+        boolean attempted = false;
+        try {
+            while (items.hasNext()) {
+                Item item;
+                read++;
+                try {
+                    item = items.next();
+                } catch (InvalidRowException e) {
+                    skipped++;
+                    addError(errors, errorCount, "Item " + read + ": " + e.getMessage());
+                    continue;
+                }
+                if (read % progressInterval == 0) {
+                    logProgress(read, created.get() + updated.get(), start);
+                }
+
+                if (item == null || item.getRedeemCode() == null || item.getRedeemCode().isBlank()) {
+                    skipped++;
+                    addError(errors, errorCount, "Item " + read + ": redeemCode é obrigatório");
+                    continue;
+                }
+
+                String redeemCode = RedeemCodeCache.normalize(item.getRedeemCode().trim());
+                if (!seen.add(redeemCode)) {
+                    skipped++;
+                    addError(errors, errorCount, "Item " + read + ": redeemCode " + redeemCode + " repetido no arquivo");
+                    continue;
+                }
+                item.setRedeemCode(redeemCode);
+                if (item.getActive() == null) {
+                    item.setActive(true);
+                }
+
+                Item current = existing.get(redeemCode);
+                if (current != null && sameContent(current, item)) {
+                    unchanged++;
+                    continue;
+                }
+                item.setId(current != null ? current.getId() : null);
+                AtomicLong written = current != null ? updated : created;
+
+                inFlight.acquire();
+                attempted = true;
+                writer.save(item).whenComplete((saved, error) -> {
+                    if (error != null) {
+                        failed.incrementAndGet();
+                        addError(errors, errorCount, "Item " + redeemCode + ": " + Futures.unwrap(error).getMessage());
+                    } else {
+                        written.incrementAndGet();
+                    }
+                    inFlight.release();
+                });
+            }
+        } finally {
+            try {
+                Futures.await(writer.close());
+                // Espera os callbacks de todas as gravações antes de fechar a contagem
+                inFlight.acquire(maxInFlight);
+            } finally {
+                // Uma importação interrompida (arquivo truncado, Firestore fora) pode ter gravado parte do lote
+                if (attempted) {
+                    redeemCodeCache.invalidateAll();
+                    itemCache.invalidateAll();
+                    catalogSnapshot.invalidate();
+                }
+            }
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        long writes = created.get() + updated.get();
+        logProgress(read, writes, start);
+        return new CatalogImportReport(read, created.get(), updated.get(), unchanged, skipped, failed.get(),
+                elapsedMillis, read * 1000.0 / elapsedMillis, new ArrayList<>(errors));
+    }
+
+    private static boolean sameContent(Item current, Item imported) {
+        return Objects.equals(current.getName(), imported.getName())
+                && Objects.equals(current.getDescription(), imported.getDescription())
+                && Objects.equals(current.getCategory(), imported.getCategory())
+                && Objects.equals(current.getRarity(), imported.getRarity())
+                && Objects.equals(current.getValue(), imported.getValue())
+                && Objects.equals(current.getIcon(), imported.getIcon())
+                && Objects.equals(current.getActive(), imported.getActive());
+    }
+
+    private static void addError(Queue<String> errors, AtomicInteger errorCount, String error) {
+        if (errorCount.getAndIncrement() < MAX_REPORTED_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    private static void logProgress(long read, long written, long start) {
+        double seconds = Math.max(1, (System.nanoTime() - start) / 1_000_000) / 1000.0;
+        log.info("Importação do catálogo: {} itens lidos, {} gravados ({} itens/s)",
+                read, written, Math.round(read / seconds));
+    }
+
+    // Linha do arquivo com um campo que não pôde ser convertido; conta como item pulado
+    private static class InvalidRowException extends RuntimeException {
+        InvalidRowException(String message) {
+            super(message);
+        }
+    }
+
+    // Erros de leitura saem dos iteradores como UncheckedIOException e voltam a ser IOException em
+    // importJson/importCsv, separando arquivo inválido de falhas do banco
+    private static class JsonItemIterator implements Iterator<Item> {
+
+        private final MappingIterator<Item> items;
+
+        JsonItemIterator(MappingIterator<Item> items) {
+            this.items = items;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return items.hasNextValue();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Item next() {
+            try {
+                return items.nextValue();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Lê o CSV linha a linha, sem carregar o arquivo inteiro em memória
+    private static class CsvItemIterator implements Iterator<Item> {
+
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private String nextLine;
+
+        CsvItemIterator(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            String header = reader.readLine();
+            if (header != null) {
+                List<String> names = parseLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+                for (int i = 0; i < names.size(); i++) {
+                    columns.put(names.get(i).trim().toLowerCase(), i);
+                }
+            }
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextLine != null;
+        }
+
+        @Override
+        public Item next() {
+            if (nextLine == null) {
+                throw new NoSuchElementException();
+            }
+            List<String> values = parseLine(nextLine);
+            advance();
+
+            Item item = new Item();
+            item.setName(value(values, "name"));
+            item.setDescription(value(values, "description"));
+            item.setCategory(value(values, "category"));
+            item.setRarity(value(values, "rarity"));
+            item.setIcon(value(values, "icon"));
+            item.setRedeemCode(value(values, "redeemcode"));
+            String itemValue = value(values, "value");
+            try {
+                item.setValue(itemValue != null ? Integer.valueOf(itemValue) : null);
+            } catch (NumberFormatException e) {
+                // A linha já foi consumida: a importação pula só esta e segue com as próximas
+                throw new InvalidRowException("value inválido: " + itemValue);
+            }
+            String active = value(values, "active");
+            item.setActive(active != null ? Boolean.valueOf(active) : null);
+            return item;
+        }
+
+        private void advance() {
+            try {
+                do {
+                    nextLine = reader.readLine();
+                } while (nextLine != null && nextLine.isBlank());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private String value(List<String> values, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= values.size() || values.get(index).isBlank()) {
+                return null;
+            }
+            return values.get(index).trim();
+        }
+
+        // Campos separados por vírgula; aspas duplas delimitam campos com vírgula ("" escapa a aspa)
+        private static List<String> parseLine(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
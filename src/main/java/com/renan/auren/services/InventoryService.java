@@ -1,115 +1,229 @@
 package com.renan.auren.services;
 
-import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QueryDocumentSnapshot;
 import com.renan.auren.domain.entities.InventoryItem;
 import com.renan.auren.domain.entities.Item;
+import com.renan.auren.domain.repositories.InventoryRepository;
+import com.renan.auren.dtos.BulkRedeemRequest;
+import com.renan.auren.dtos.BulkRedeemResponse;
+import com.renan.auren.dtos.InventoryPage;
+import com.renan.auren.infrastructure.cache.InventoryCache;
+import com.renan.auren.infrastructure.cache.RedeemCodeCache;
+import com.renan.auren.infrastructure.concurrent.Futures;
+import com.renan.auren.infrastructure.concurrent.SingleFlight;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 @Service
 public class InventoryService {
 
     @Autowired
-    private Firestore firestore;
+    private InventoryRepository inventoryRepository;
 
     @Autowired
     private ItemService itemService;
 
-    private static final String COLLECTION_NAME = "inventory";
+    @Autowired
+    private InventoryCache inventoryCache;
+
+    private final SingleFlight<Long, List<InventoryItem>> inventoryLoads = new SingleFlight<>();
 
-    public InventoryItem addItemToInventory(Long userId, String redeemCode) 
+    public CompletableFuture<InventoryItem> addItemToInventoryAsync(Long userId, String redeemCode) {
+        return itemService.getItemByRedeemCodeAsync(redeemCode)
+                .thenCompose(item -> {
+                    if (item == null || item.getId() == null) {
+                        throw new RuntimeException("Código de resgate inválido ou item não encontrado");
+                    }
+
+                    // Upsert atômico: cria o item no inventário ou incrementa a quantidade no servidor
+                    return inventoryRepository.increment(toInventoryItem(userId, item), 1);
+                })
+                .thenApply(stored -> {
+                    // Quantidade absoluta devolvida pelo engine: o write-through não depende do que está em cache
+                    inventoryLoads.forget(userId);
+                    inventoryCache.update(stored);
+                    return stored;
+                });
+    }
+
+    public InventoryItem addItemToInventory(Long userId, String redeemCode)
             throws ExecutionException, InterruptedException {
-        
-        Item item = itemService.getItemByRedeemCode(redeemCode);
-        if (item == null || item.getId() == null) {
-            throw new RuntimeException("Código de resgate inválido ou item não encontrado");
+        return Futures.await(addItemToInventoryAsync(userId, redeemCode));
+    }
+
+    public CompletableFuture<List<InventoryItem>> getUserInventoryAsync(Long userId) {
+        List<InventoryItem> cached = inventoryCache.get(userId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
         }
 
-        // Verifica se o usuário já possui o item
-        InventoryItem existingItem = getInventoryItemByUserIdAndItemId(userId, item.getId());
-        
-        if (existingItem != null) {
-            String existingItemId = existingItem.getId();
-            if (existingItemId != null) {
-                // Incrementa a quantidade
-                existingItem.setQuantity(existingItem.getQuantity() + 1);
-                firestore.collection(COLLECTION_NAME)
-                        .document(existingItemId)
-                        .update("quantity", existingItem.getQuantity())
-                        .get();
-                return existingItem;
+        // Polls simultâneos do mesmo usuário compartilham uma única leitura
+        return inventoryLoads.execute(userId, () -> {
+            long stamp = inventoryCache.stamp(userId);
+            return inventoryRepository.findByUserId(userId)
+                    .thenCompose(this::enrich)
+                    .thenApply(items -> {
+                        inventoryCache.putIfUnchanged(userId, items, stamp);
+                        return items;
+                    });
+        });
+    }
+
+    public List<InventoryItem> getUserInventory(Long userId) throws ExecutionException, InterruptedException {
+        return Futures.await(getUserInventoryAsync(userId));
+    }
+
+    // Resgate em lote (campanhas): códigos deduplicados, resolvidos em uma busca em lote e os incrementos
+    // agrupados por (userId,itemId) antes de serem gravados em lotes
+    public CompletableFuture<BulkRedeemResponse> redeemBulkAsync(List<BulkRedeemRequest.Entry> entries) {
+        Set<String> codes = new HashSet<>();
+        for (BulkRedeemRequest.Entry entry : entries) {
+            if (entry != null && entry.userId() != null && entry.redeemCode() != null) {
+                codes.add(RedeemCodeCache.normalize(entry.redeemCode()));
             }
         }
-        
-        // Cria novo item no inventário se não existir ou se o ID for null
-        InventoryItem inventoryItem = new InventoryItem();
-        inventoryItem.setUserId(userId);
-        inventoryItem.setItemId(item.getId());
-        inventoryItem.setItemName(item.getName());
-        inventoryItem.setItemDescription(item.getDescription());
-        inventoryItem.setItemCategory(item.getCategory());
-        inventoryItem.setItemRarity(item.getRarity());
-        inventoryItem.setItemIcon(item.getIcon());
-        inventoryItem.setQuantity(1L);
-        inventoryItem.setAcquiredAt(System.currentTimeMillis());
 
-        Map<String, Object> itemData = new HashMap<>();
-        itemData.put("userId", inventoryItem.getUserId());
-        itemData.put("itemId", inventoryItem.getItemId());
-        itemData.put("itemName", inventoryItem.getItemName());
-        itemData.put("itemDescription", inventoryItem.getItemDescription());
-        itemData.put("itemCategory", inventoryItem.getItemCategory());
-        itemData.put("itemRarity", inventoryItem.getItemRarity());
-        itemData.put("itemIcon", inventoryItem.getItemIcon());
-        itemData.put("quantity", inventoryItem.getQuantity());
-        itemData.put("acquiredAt", inventoryItem.getAcquiredAt());
-
-        var docRef = firestore.collection(COLLECTION_NAME).document();
-        docRef.set(itemData).get();
-        inventoryItem.setId(docRef.getId());
-        return inventoryItem;
+        return itemService.getItemsByRedeemCodesAsync(codes)
+                .thenCompose(items -> {
+                    Map<String, InventoryItem> templates = new LinkedHashMap<>();
+                    Map<String, Long> amounts = new HashMap<>();
+                    for (BulkRedeemRequest.Entry entry : entries) {
+                        Item item = resolve(entry, items);
+                        if (item != null) {
+                            String id = InventoryRepository.inventoryId(entry.userId(), item.getId());
+                            templates.computeIfAbsent(id, key -> toInventoryItem(entry.userId(), item));
+                            amounts.merge(id, 1L, Long::sum);
+                        }
+                    }
+
+                    List<InventoryRepository.Increment> increments = new ArrayList<>(templates.size());
+                    templates.forEach((id, template) ->
+                            increments.add(new InventoryRepository.Increment(template, amounts.get(id))));
+
+                    // O resgate em lote não lê as quantidades resultantes: descarta o cache dos usuários afetados
+                    return inventoryRepository.incrementAll(increments)
+                            .whenComplete((failures, error) -> templates.values().forEach(template -> {
+                                inventoryCache.invalidate(template.getUserId());
+                                inventoryLoads.forget(template.getUserId());
+                            }))
+                            .thenApply(failures -> toBulkResponse(entries, items, failures));
+                });
     }
 
-    public List<InventoryItem> getUserInventory(Long userId) throws ExecutionException, InterruptedException {
-        var future = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("userId", userId)
-                .get();
-
-        List<InventoryItem> items = new ArrayList<>();
-        for (QueryDocumentSnapshot doc : future.get().getDocuments()) {
-            InventoryItem item = doc.toObject(InventoryItem.class);
-            if (item != null) {
-                item.setId(doc.getId());
-                items.add(item);
+    private static Item resolve(BulkRedeemRequest.Entry entry, Map<String, Item> items) {
+        if (entry == null || entry.userId() == null || entry.redeemCode() == null) {
+            return null;
+        }
+        return items.get(RedeemCodeCache.normalize(entry.redeemCode()));
+    }
+
+    private static BulkRedeemResponse toBulkResponse(List<BulkRedeemRequest.Entry> entries, Map<String, Item> items,
+                                                     Map<String, Throwable> failures) {
+        List<BulkRedeemResponse.Result> results = new ArrayList<>(entries.size());
+        int redeemed = 0;
+        for (BulkRedeemRequest.Entry entry : entries) {
+            if (entry == null || entry.userId() == null || entry.redeemCode() == null) {
+                results.add(new BulkRedeemResponse.Result(entry != null ? entry.userId() : null,
+                        entry != null ? entry.redeemCode() : null, BulkRedeemResponse.Status.ERROR, null,
+                        "userId e redeemCode são obrigatórios"));
+                continue;
+            }
+
+            Item item = resolve(entry, items);
+            if (item == null) {
+                results.add(new BulkRedeemResponse.Result(entry.userId(), entry.redeemCode(),
+                        BulkRedeemResponse.Status.INVALID_CODE, null,
+                        "Código de resgate inválido ou item não encontrado"));
+                continue;
+            }
+
+            Throwable failure = failures.get(InventoryRepository.inventoryId(entry.userId(), item.getId()));
+            if (failure != null) {
+                results.add(new BulkRedeemResponse.Result(entry.userId(), entry.redeemCode(),
+                        BulkRedeemResponse.Status.ERROR, item.getId(), failure.getMessage()));
+            } else {
+                results.add(new BulkRedeemResponse.Result(entry.userId(), entry.redeemCode(),
+                        BulkRedeemResponse.Status.REDEEMED, item.getId(), null));
+                redeemed++;
             }
         }
-        return items;
+        return new BulkRedeemResponse(redeemed, results.size() - redeemed, results);
     }
 
-    private InventoryItem getInventoryItemByUserIdAndItemId(Long userId, String itemId) 
-            throws ExecutionException, InterruptedException {
-        var future = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("userId", userId)
-                .whereEqualTo("itemId", itemId)
-                .get();
+    // Página do inventário ordenada pelo ID do documento; o cursor é o ID do último item da página anterior
+    public CompletableFuture<InventoryPage> getUserInventoryPageAsync(Long userId, String cursor, int limit) {
+        CompletableFuture<List<InventoryItem>> page;
+        if (inventoryRepository.readsWholeInventory() || inventoryCache.get(userId) != null) {
+            // Inventário já em cache, ou layout que lê tudo de qualquer forma: recorta a lista completa
+            page = getUserInventoryAsync(userId).thenApply(items -> slice(items, cursor, limit));
+        } else {
+            page = inventoryRepository.findPageByUserId(userId, cursor, limit).thenCompose(this::enrich);
+        }
+        return page
+                .thenApply(items -> {
+                    String nextCursor = items.size() == limit ? items.get(items.size() - 1).getId() : null;
+                    return new InventoryPage(items, nextCursor);
+                });
+    }
 
-        var docs = future.get().getDocuments();
-        if (docs.isEmpty()) {
-            return null;
+    // Mesma ordem e cursor de findPageByUserId; a lista em cache não está necessariamente ordenada
+    private static List<InventoryItem> slice(List<InventoryItem> items, String afterId, int limit) {
+        return items.stream()
+                .filter(item -> afterId == null || item.getId().compareTo(afterId) > 0)
+                .sorted(Comparator.comparing(InventoryItem::getId))
+                .limit(limit)
+                .toList();
+    }
+
+    // No layout agregado o inventário guarda apenas itemId/quantidade/data; os dados de exibição vêm do
+    // catálogo em cache. No layout por documento os campos já vêm preenchidos e nada é consultado.
+    private CompletableFuture<List<InventoryItem>> enrich(List<InventoryItem> items) {
+        Set<String> itemIds = new HashSet<>();
+        for (InventoryItem item : items) {
+            if (item.getItemName() == null && item.getItemId() != null) {
+                itemIds.add(item.getItemId());
+            }
         }
-        InventoryItem item = docs.get(0).toObject(InventoryItem.class);
-        String docId = docs.get(0).getId();
-        if (item != null && docId != null) {
-            item.setId(docId);
+        if (itemIds.isEmpty()) {
+            return CompletableFuture.completedFuture(items);
         }
-        return item;
+
+        return itemService.getItemsByIdsAsync(itemIds)
+                .thenApply(catalog -> {
+                    for (InventoryItem inventoryItem : items) {
+                        Item item = inventoryItem.getItemName() == null ? catalog.get(inventoryItem.getItemId()) : null;
+                        if (item != null) {
+                            inventoryItem.setItemName(item.getName());
+                            inventoryItem.setItemDescription(item.getDescription());
+                            inventoryItem.setItemCategory(item.getCategory());
+                            inventoryItem.setItemRarity(item.getRarity());
+                            inventoryItem.setItemIcon(item.getIcon());
+                        }
+                    }
+                    return items;
+                });
     }
-}
 
+    private static InventoryItem toInventoryItem(Long userId, Item item) {
+        InventoryItem inventoryItem = new InventoryItem();
+        inventoryItem.setUserId(userId);
+        inventoryItem.setItemId(item.getId());
+        inventoryItem.setItemName(item.getName());
+        inventoryItem.setItemDescription(item.getDescription());
+        inventoryItem.setItemCategory(item.getCategory());
+        inventoryItem.setItemRarity(item.getRarity());
+        inventoryItem.setItemIcon(item.getIcon());
+        inventoryItem.setAcquiredAt(System.currentTimeMillis());
+        return inventoryItem;
+    }
+}
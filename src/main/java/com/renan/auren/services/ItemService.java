@@ -1,15 +1,23 @@
 package com.renan.auren.services;
 
-import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QueryDocumentSnapshot;
 import com.renan.auren.domain.entities.Item;
+import com.renan.auren.domain.repositories.ItemRepository;
+import com.renan.auren.infrastructure.cache.CatalogSnapshot;
+import com.renan.auren.infrastructure.cache.ItemCache;
+import com.renan.auren.infrastructure.cache.RedeemCodeCache;
+import com.renan.auren.infrastructure.concurrent.Futures;
+import com.renan.auren.infrastructure.concurrent.SingleFlight;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 @Service
@@ -17,75 +25,121 @@ public class ItemService {
     //Logica de criação dos Itens e Validação do Redeem Code 
     // (Aqui poode ser alterado futuramente para a criação de mais itens do RPG)
     @Autowired
-    private Firestore firestore;
+    private ItemRepository itemRepository;
 
-    private static final String COLLECTION_NAME = "items";
+    @Autowired
+    private RedeemCodeCache redeemCodeCache;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
 
-    private Firestore getFirestore() {
-        if (firestore == null) {
-            throw new IllegalStateException("Firestore não está inicializado");
+    @Autowired
+    private ItemCache itemCache;
+
+    // Leituras concorrentes da mesma chave compartilham uma única consulta ao banco
+    private final SingleFlight<String, Item> redeemCodeLoads = new SingleFlight<>();
+    private final SingleFlight<Boolean, List<Item>> activeItemsLoads = new SingleFlight<>();
+
+    public CompletableFuture<Item> getItemByRedeemCodeAsync(String redeemCode) {
+        // O catálogo quase não muda: consulta o cache antes de ir ao Firestore
+        Optional<Item> cached = redeemCodeCache.get(redeemCode);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.orElse(null));
         }
-        return firestore;
+
+        String code = RedeemCodeCache.normalize(redeemCode);
+        return redeemCodeLoads.execute(code, () -> {
+            // Um cadastro do mesmo código durante a busca impede que o "não encontrado" volte ao cache
+            long stamp = redeemCodeCache.stamp(code);
+            return itemRepository.findActiveByRedeemCode(code)
+                    .thenApply(item -> {
+                        redeemCodeCache.putIfUnchanged(code, item, stamp);
+                        return item;
+                    });
+        });
     }
 
     public Item getItemByRedeemCode(String redeemCode) throws ExecutionException, InterruptedException {
-        try {
-            var future = getFirestore().collection(COLLECTION_NAME)
-                    .whereEqualTo("redeemCode", redeemCode.toUpperCase())
-                    .whereEqualTo("active", true)
-                    .get();
-
-            var docs = future.get().getDocuments();
-            if (docs.isEmpty()) {
-                return null;
-            }
-            Item item = docs.get(0).toObject(Item.class);
-            if (item != null) {
-                item.setId(docs.get(0).getId());
-            }
-            return item;
-        } catch (IllegalStateException e) {
-            if (e.getMessage() != null && e.getMessage().contains("closed")) {
-                throw new IllegalStateException("Firestore foi fechado. Reinicie a aplicação.", e);
-            }
-            throw e;
-        }
+        return Futures.await(getItemByRedeemCodeAsync(redeemCode));
     }
 
-    public List<Item> getAllItems() throws ExecutionException, InterruptedException {
-        var future = getFirestore().collection(COLLECTION_NAME)
-                .whereEqualTo("active", true)
-                .get();
-
-        List<Item> items = new ArrayList<>();
-        for (QueryDocumentSnapshot doc : future.get().getDocuments()) {
-            Item item = doc.toObject(Item.class);
-            if (item != null) {
-                item.setId(doc.getId());
-                items.add(item);
+    // Resolve vários redeem codes de uma vez: o que estiver no cache não vai ao Firestore e o restante
+    // é buscado em lote. O mapa retornado usa os códigos normalizados e só contém códigos válidos.
+    public CompletableFuture<Map<String, Item>> getItemsByRedeemCodesAsync(Collection<String> redeemCodes) {
+        Map<String, Item> found = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (String redeemCode : redeemCodes) {
+            String code = RedeemCodeCache.normalize(redeemCode);
+            Optional<Item> cached = redeemCodeCache.get(code);
+            if (cached == null) {
+                missing.add(code);
+            } else {
+                cached.ifPresent(item -> found.put(code, item));
             }
         }
-        return items;
+
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(found);
+        }
+
+        Map<String, Long> stamps = new HashMap<>();
+        for (String code : missing) {
+            stamps.put(code, redeemCodeCache.stamp(code));
+        }
+        return itemRepository.findActiveByRedeemCodes(missing)
+                .thenApply(loaded -> {
+                    for (String code : missing) {
+                        Item item = loaded.get(code);
+                        redeemCodeCache.putIfUnchanged(code, item, stamps.get(code));
+                        if (item != null) {
+                            found.put(code, item);
+                        }
+                    }
+                    return found;
+                });
     }
 
-    public Item createItem(Item item) throws ExecutionException, InterruptedException {
-        Map<String, Object> itemData = new HashMap<>();
-        itemData.put("name", item.getName());
-        itemData.put("description", item.getDescription());
-        itemData.put("category", item.getCategory());
-        itemData.put("rarity", item.getRarity());
-        itemData.put("value", item.getValue());
-        itemData.put("icon", item.getIcon());
-        String redeemCode = item.getRedeemCode();
-        if (redeemCode != null) {
-            itemData.put("redeemCode", redeemCode.toUpperCase());
+    // Itens do catálogo pelo ID (inclusive inativos, pois continuam no inventário de quem já resgatou);
+    // só os IDs fora do cache são buscados, em uma única leitura em lote
+    public CompletableFuture<Map<String, Item>> getItemsByIdsAsync(Collection<String> ids) {
+        Map<String, Item> found = itemCache.getAll(ids);
+        if (found.size() == ids.size()) {
+            return CompletableFuture.completedFuture(found);
         }
-        itemData.put("active", item.getActive() != null ? item.getActive() : true);
 
-        var docRef = getFirestore().collection(COLLECTION_NAME).document();
-        docRef.set(itemData).get();
-        item.setId(docRef.getId());
-        return item;
+        Set<String> missing = new HashSet<>(ids);
+        missing.removeAll(found.keySet());
+        return itemRepository.findByIds(missing)
+                .thenApply(loaded -> {
+                    itemCache.putAll(loaded);
+                    found.putAll(loaded);
+                    return found;
+                });
+    }
+
+    public CompletableFuture<List<Item>> getAllItemsAsync() {
+        return activeItemsLoads.execute(Boolean.TRUE, itemRepository::findAllActive);
+    }
+
+    public List<Item> getAllItems() throws ExecutionException, InterruptedException {
+        return Futures.await(getAllItemsAsync());
+    }
+
+    public CompletableFuture<Item> createItemAsync(Item item) {
+        return itemRepository.save(item)
+                .thenApply(saved -> {
+                    // Remove entradas (inclusive negativas) do código recém-gravado
+                    String redeemCode = saved.getRedeemCode();
+                    if (redeemCode != null) {
+                        redeemCodeCache.invalidate(redeemCode);
+                        redeemCodeLoads.forget(RedeemCodeCache.normalize(redeemCode));
+                    }
+                    catalogSnapshot.invalidate();
+                    return saved;
+                });
     }
-}
 
+    public Item createItem(Item item) throws ExecutionException, InterruptedException {
+        return Futures.await(createItemAsync(item));
+    }
+}
@@ -0,0 +1,86 @@
+package com.renan.auren.services;
+
+import com.renan.auren.domain.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Distribui IDs de usuário a partir de blocos reservados no repositório.
+// Cada nó reserva "blockSize" IDs por transação e os entrega sem lock via AtomicLong;
+// o lock só é usado quando o bloco atual se esgota, e apenas uma reserva fica em andamento por vez.
+// IDs não usados de um bloco são perdidos quando a aplicação reinicia (podem surgir lacunas).
+@Component
+public class UserIdAllocator {
+
+    private record Block(AtomicLong next, long end) {
+    }
+
+    // Reserva em andamento para substituir o bloco "exhausted"
+    private record Lease(Block exhausted, CompletableFuture<Void> future) {
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${auren.users.id-block-size:1000}")
+    private int blockSize;
+
+    private final ReentrantLock leaseLock = new ReentrantLock();
+
+    // Começa vazio: a primeira chamada reserva o primeiro bloco
+    private volatile Block current = new Block(new AtomicLong(), 0);
+
+    private Lease pendingLease;
+
+    public CompletableFuture<Long> nextIdAsync() {
+        Block block = current;
+        long id = block.next().getAndIncrement();
+        if (id < block.end()) {
+            return CompletableFuture.completedFuture(id);
+        }
+        return leaseAfter(block).thenCompose(leased -> nextIdAsync());
+    }
+
+    private CompletableFuture<Void> leaseAfter(Block exhausted) {
+        leaseLock.lock();
+        try {
+            // Outra chamada pode já ter reservado um novo bloco
+            if (current != exhausted) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (pendingLease != null && pendingLease.exhausted() == exhausted) {
+                return pendingLease.future();
+            }
+
+            CompletableFuture<Void> future = userRepository.reserveIds(blockSize)
+                    .thenAccept(first -> current = new Block(new AtomicLong(first), first + blockSize));
+            Lease lease = new Lease(exhausted, future);
+            pendingLease = lease;
+
+            // Se a reserva falhar, a próxima chamada tenta de novo em vez de reaproveitar a falha
+            future.whenComplete((ignored, error) -> {
+                if (error != null) {
+                    clearLease(lease);
+                }
+            });
+            return future;
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    private void clearLease(Lease lease) {
+        leaseLock.lock();
+        try {
+            if (pendingLease == lease) {
+                pendingLease = null;
+            }
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+}
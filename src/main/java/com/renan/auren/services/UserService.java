@@ -1,133 +1,129 @@
 package com.renan.auren.services;
 
-import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.Firestore;
 import com.renan.auren.domain.entities.User;
+import com.renan.auren.domain.repositories.UserRepository;
+import com.renan.auren.infrastructure.cache.UserEmailIndex;
+import com.renan.auren.infrastructure.concurrent.Futures;
+import com.renan.auren.infrastructure.concurrent.SingleFlight;
+import com.renan.auren.infrastructure.security.PasswordHasher;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 @Service
 public class UserService {
-    
-    // Método helper para obter uma instância válida do Firestore
-    private Firestore getFirestore() {
-        // Sempre obtém diretamente do FirebaseConfig, que gerencia a criação de novas instâncias se necessário
-        return com.renan.auren.infrastructure.security.FirebaseConfig.getValidFirestore();
-    }
-    
-    // Método helper que tenta a operação e, se falhar com "closed", tenta novamente
-    private <T> T executeWithRetry(java.util.function.Function<Firestore, T> operation) throws ExecutionException, InterruptedException {
-        try {
-            return operation.apply(getFirestore());
-        } catch (IllegalStateException e) {
-            if (e.getMessage() != null && e.getMessage().contains("closed")) {
-                System.err.println("Firestore estava fechado, criando nova instância do FirebaseApp...");
-                // Tenta novamente com uma nova instância do FirebaseApp
-                try {
-                    Thread.sleep(100); // Pequeno delay
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                }
-                // Cria uma nova instância do FirebaseApp quando o Firestore está fechado
-                return operation.apply(com.renan.auren.infrastructure.security.FirebaseConfig.getNewFirestoreInstance());
-            }
-            throw e;
-        }
-    }
-
-    private static final String COLLECTION_NAME = "users";
-    private static final String COUNTER_COLLECTION = "counters";
-    private static final String USER_COUNTER_DOC = "users";
-
 
-    //Função para garantir que o ID do usuário seja único
-    private Long getNextUserId() throws ExecutionException, InterruptedException {
-        return executeWithRetry(fs -> {
-            try {
-                DocumentReference counterRef = fs
-                        .collection(COUNTER_COLLECTION)
-                        .document(USER_COUNTER_DOC);
-
-                return fs.runTransaction(transaction -> {
-                    DocumentSnapshot snapshot = transaction.get(counterRef).get();
-
-                    Long lastId;
-
-                    if (!snapshot.exists()) {
-                        lastId = 0L;
-                        transaction.set(counterRef,
-                                java.util.Collections.singletonMap("lastId", lastId)
-                        );
-                    } else {
-                        lastId = snapshot.getLong("lastId");
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserIdAllocator userIdAllocator;
+
+    @Autowired
+    private UserEmailIndex userEmailIndex;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    // Logins simultâneos do mesmo email (ex.: tempestade de logins após uma queda) compartilham uma busca
+    private final SingleFlight<String, User> emailLoads = new SingleFlight<>();
+    private final SingleFlight<Long, User> idLoads = new SingleFlight<>();
+
+    public CompletableFuture<User> createUserAsync(User user) {
+        CompletableFuture<String> password = user.getPassword() != null
+                ? passwordHasher.hash(user.getPassword())
+                : CompletableFuture.completedFuture(null);
+
+        return password
+                .thenCompose(hash -> {
+                    user.setPassword(hash);
+                    return userIdAllocator.nextIdAsync();
+                })
+                .thenCompose(newId -> {
+                    user.setId(newId);
+                    return userRepository.save(user);
+                })
+                .thenApply(saved -> {
+                    // Sobrescreve uma entrada negativa do mesmo email (ex.: primeiro login via Firebase)
+                    if (user.getEmail() != null) {
+                        userEmailIndex.put(user.getEmail(), user.getId());
+                        emailLoads.forget(user.getEmail());
                     }
+                    return user; // retorna o usuário criado
+                });
+    }
 
-                    Long nextId = lastId + 1;
-                    transaction.update(counterRef, "lastId", nextId);
+    public User createUser(User user) throws ExecutionException, InterruptedException {
+        return Futures.await(createUserAsync(user));
+    }
 
-                    return nextId;
-                }).get();
-            } catch (ExecutionException | InterruptedException e) {
-                throw new RuntimeException(e);
-            }
-        });
+    // email -> userId pelo índice em memória (ou user_emails no Firestore) e depois leitura pontual pelo ID,
+    // em vez de uma consulta por email a cada login. Emails desconhecidos ficam em cache negativo.
+    public CompletableFuture<User> getUserByEmailAsync(String email) {
+        return emailLoads.execute(email, () -> resolveByEmail(email));
     }
 
-    public User createUser(User user) throws ExecutionException, InterruptedException {
-        Long newId = getNextUserId();
-        user.setId(newId);
-
-        executeWithRetry(fs -> {
-            try {
-                fs.collection(COLLECTION_NAME)
-                        .document(String.valueOf(newId))
-                        .set(user)
-                        .get();
-                return null;
-            } catch (ExecutionException | InterruptedException e) {
-                throw new RuntimeException(e);
+    private CompletableFuture<User> resolveByEmail(String email) {
+        Optional<Long> cached = userEmailIndex.get(email);
+        if (cached != null) {
+            if (cached.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
             }
-        });
+            return getUserByIdAsync(cached.get())
+                    .thenCompose(user -> {
+                        if (user != null && email.equals(user.getEmail())) {
+                            return CompletableFuture.completedFuture(user);
+                        }
+                        // Índice desatualizado (usuário removido ou email alterado): refaz a busca
+                        userEmailIndex.invalidate(email);
+                        return lookupByEmail(email);
+                    });
+        }
+        return lookupByEmail(email);
+    }
 
-        return user; // retorna o usuário criado
+    private CompletableFuture<User> lookupByEmail(String email) {
+        long stamp = userEmailIndex.stamp(email);
+        return userRepository.findIdByEmail(email)
+                .thenCompose(id -> id == null
+                        ? CompletableFuture.<User>completedFuture(null)
+                        : getUserByIdAsync(id))
+                .thenApply(user -> {
+                    boolean matches = user != null && email.equals(user.getEmail());
+                    // Um cadastro do mesmo email durante a busca vence o resultado (possivelmente negativo) dela
+                    userEmailIndex.putIfUnchanged(email, matches ? user.getId() : null, stamp);
+                    return matches ? user : null;
+                });
     }
 
     public User getUserByEmail(String email) throws ExecutionException, InterruptedException {
-        return executeWithRetry(fs -> {
-            try {
-                var future = fs.collection(COLLECTION_NAME)
-                        .whereEqualTo("email", email)
-                        .get();
-
-                var docs = future.get().getDocuments();
-
-                return docs.isEmpty() ? null : docs.get(0).toObject(User.class);
-            } catch (ExecutionException | InterruptedException e) {
-                throw new RuntimeException(e);
-            }
-        });
+        return Futures.await(getUserByEmailAsync(email));
     }
 
     public User createUserFromFirebase(String email) throws ExecutionException, InterruptedException {
         User user = new User();
         user.setNickname(email.split("@")[0]);
         user.setEmail(email);
-        user.setPassword("firebase");
+        // Sem senha: a conta só entra pelo login Firebase/Google
+        user.setPassword(null);
 
         return createUser(user);
     }
 
+    // Regrava o hash (ex.: senha legada em texto puro ou custo do bcrypt aumentado)
+    public CompletableFuture<Void> updatePasswordHashAsync(User user, String passwordHash) {
+        User updated = new User(user.getId(), user.getNickname(), user.getEmail(), passwordHash);
+        return userRepository.save(updated);
+    }
+
+    public CompletableFuture<User> getUserByIdAsync(Long id) {
+        return idLoads.execute(id, () -> userRepository.findById(id));
+    }
+
     public User getUserById(Long id) throws ExecutionException, InterruptedException {
-        return executeWithRetry(fs -> {
-            try {
-                DocumentReference ref = fs.collection(COLLECTION_NAME).document(String.valueOf(id));
-                DocumentSnapshot snap = ref.get().get();
-                return snap.exists() ? snap.toObject(User.class) : null;
-            } catch (ExecutionException | InterruptedException e) {
-                throw new RuntimeException(e);
-            }
-        });
+        return Futures.await(getUserByIdAsync(id));
     }
 }
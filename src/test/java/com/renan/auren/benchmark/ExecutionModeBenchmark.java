@@ -0,0 +1,96 @@
+package com.renan.auren.benchmark;
+
+import com.renan.auren.AurenApplication;
+import com.renan.auren.domain.entities.Item;
+import com.renan.auren.services.InventoryService;
+import com.renan.auren.services.ItemService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Escalabilidade de requisições que bloqueiam no "Firestore": o engine em memória simula 20 ms por
+// operação e disparamos "concurrency" requisições de inventário de uma vez, como o Tomcat faria,
+// em um pool de 200 threads de plataforma (padrão do Tomcat) ou em virtual threads.
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="ExecutionModeBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    private static final int TOMCAT_DEFAULT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"200", "2000"})
+    public int concurrency;
+
+    private ConfigurableApplicationContext context;
+    private InventoryService inventoryService;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        context = new SpringApplicationBuilder(AurenApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--auren.storage=memory", "--auren.memory.latency=20ms");
+        inventoryService = context.getBean(InventoryService.class);
+
+        Item item = new Item();
+        item.setName("Poção");
+        item.setRedeemCode("BENCH01");
+        context.getBean(ItemService.class).createItem(item);
+        for (long userId = 1; userId <= 100; userId++) {
+            inventoryService.addItemToInventory(userId, "BENCH01");
+        }
+
+        executor = "virtual".equals(mode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_DEFAULT_MAX_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        context.close();
+    }
+
+    // Tempo para atender um pico de "concurrency" leituras de inventário simultâneas
+    @Benchmark
+    public int inventoryBurst() throws Exception {
+        List<Future<Integer>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            long userId = i % 100 + 1;
+            futures.add(executor.submit(() -> inventoryService.getUserInventory(userId).size()));
+        }
+
+        int total = 0;
+        for (Future<Integer> future : futures) {
+            total += future.get();
+        }
+        return total;
+    }
+}
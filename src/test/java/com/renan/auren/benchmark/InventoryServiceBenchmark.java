@@ -0,0 +1,66 @@
+package com.renan.auren.benchmark;
+
+import com.renan.auren.AurenApplication;
+import com.renan.auren.domain.entities.InventoryItem;
+import com.renan.auren.domain.entities.Item;
+import com.renan.auren.services.InventoryService;
+import com.renan.auren.services.ItemService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Custo de CPU do resgate (cache de redeem code + incremento no inventário) sobre o engine em memória sem
+// latência, isolando o código da aplicação do tempo de rede do Firestore.
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="InventoryServiceBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class InventoryServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private InventoryService inventoryService;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        context = new SpringApplicationBuilder(AurenApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--auren.storage=memory", "--auren.memory.latency=0ms");
+        inventoryService = context.getBean(InventoryService.class);
+
+        Item item = new Item();
+        item.setName("Poção");
+        item.setRedeemCode("BENCH01");
+        context.getBean(ItemService.class).createItem(item);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public InventoryItem addItemToInventory() throws Exception {
+        long userId = ThreadLocalRandom.current().nextLong(1, 10_000);
+        return inventoryService.addItemToInventory(userId, "bench01");
+    }
+}
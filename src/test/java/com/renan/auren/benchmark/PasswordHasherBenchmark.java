@@ -0,0 +1,53 @@
+package com.renan.auren.benchmark;
+
+import com.renan.auren.infrastructure.security.PasswordHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Logins por segundo em um núcleo (uma thread, executor com uma thread) para cada custo do bcrypt.
+// A capacidade da instância é aproximadamente esse valor vezes auren.password.threads.
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="PasswordHasherBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(1)
+@Fork(1)
+public class PasswordHasherBenchmark {
+
+    @Param({"10", "12"})
+    private int cost;
+
+    private PasswordHasher hasher;
+    private String storedHash;
+
+    @Setup
+    public void setup() {
+        hasher = new PasswordHasher(cost, 1, 16);
+        storedHash = hasher.hash("correct horse battery staple").join();
+    }
+
+    @TearDown
+    public void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Benchmark
+    public boolean verifyLogin() {
+        return hasher.matches("correct horse battery staple", storedHash).join();
+    }
+}
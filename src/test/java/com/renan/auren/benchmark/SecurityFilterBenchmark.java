@@ -0,0 +1,71 @@
+package com.renan.auren.benchmark;
+
+import com.renan.auren.infrastructure.metrics.AuthMetrics;
+import com.renan.auren.infrastructure.security.SecurityFilter;
+import com.renan.auren.infrastructure.security.TokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Custo do SecurityFilter por requisição: sem token, com JWT válido (cacheado) e com token inválido.
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="SecurityFilterBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityFilterBenchmark {
+
+    private SecurityFilter filter;
+    private String validHeader;
+
+    @Setup
+    public void setup() {
+        TokenService tokenService = new TokenService(50_000);
+        validHeader = "Bearer " + tokenService.generateToken("bench@auren.com", 42L);
+
+        filter = new SecurityFilter();
+        ReflectionTestUtils.setField(filter, "tokenService", tokenService);
+        ReflectionTestUtils.setField(filter, "metrics", new AuthMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public int anonymous() throws Exception {
+        return doFilter(null);
+    }
+
+    @Benchmark
+    public int authenticated() throws Exception {
+        return doFilter(validHeader);
+    }
+
+    @Benchmark
+    public int rejected() throws Exception {
+        return doFilter("Bearer token-invalido");
+    }
+
+    private int doFilter(String authorization) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,64 @@
+package com.renan.auren.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renan.auren.domain.entities.InventoryItem;
+import com.renan.auren.domain.entities.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialização JSON das respostas de inventário e catálogo, com o ObjectMapper configurado como no Spring Boot.
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="SerializationBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "500"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<InventoryItem> inventory;
+    private List<Item> items;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        inventory = new ArrayList<>(size);
+        items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String itemId = "item-" + i;
+            items.add(new Item(itemId, "Poção " + i, "Recupera 50 de vida", "consumivel", "comum", 10 + i,
+                    "pocao.png", "POCAO" + i, true));
+            inventory.add(new InventoryItem("42_" + itemId, 42L, itemId, "Poção " + i, "Recupera 50 de vida",
+                    "consumivel", "comum", "pocao.png", i + 1L, System.currentTimeMillis()));
+        }
+    }
+
+    @Benchmark
+    public byte[] inventoryList() throws Exception {
+        return objectMapper.writeValueAsBytes(inventory);
+    }
+
+    @Benchmark
+    public byte[] itemList() throws Exception {
+        return objectMapper.writeValueAsBytes(items);
+    }
+}
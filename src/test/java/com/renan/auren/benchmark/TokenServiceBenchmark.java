@@ -0,0 +1,73 @@
+package com.renan.auren.benchmark;
+
+import com.renan.auren.infrastructure.security.TokenService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Custo de autenticação por requisição: parser criado a cada chamada (comportamento antigo)
+// contra o parser compartilhado com cache de tokens validados.
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="TokenServiceBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenServiceBenchmark {
+
+    private TokenService tokenService;
+    private String apiToken;
+
+    private SecretKey legacyKey;
+    private String legacyToken;
+
+    @Setup
+    public void setup() {
+        tokenService = new TokenService(50_000);
+        apiToken = tokenService.generateToken("bench@auren.com", 42L);
+
+        legacyKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        legacyToken = Jwts.builder()
+                .setSubject("bench@auren.com")
+                .claim("id", 42L)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(10)))
+                .signWith(legacyKey)
+                .compact();
+    }
+
+    @Benchmark
+    public Claims validateWithParserPerCall() {
+        return Jwts.parserBuilder()
+                .setSigningKey(legacyKey)
+                .build()
+                .parseClaimsJws(legacyToken)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims validateWithCachedParser() {
+        return tokenService.validateToken(apiToken);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenService.generateToken("bench@auren.com", 42L);
+    }
+}
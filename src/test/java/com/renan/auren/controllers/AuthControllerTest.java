@@ -0,0 +1,64 @@
+package com.renan.auren.controllers;
+
+import com.renan.auren.services.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Baldes pequenos e sem reposição durante o teste, para contar exatamente os tokens consumidos
+@SpringBootTest(properties = {
+        "auren.ratelimit.login-ip.capacity=2",
+        "auren.ratelimit.login-ip.refill-period=1h",
+        "auren.ratelimit.login-email.capacity=3",
+        "auren.ratelimit.login-email.refill-period=1h"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AuthService authService;
+
+    @Test
+    void loginsRejectedByTheIpDoNotLockTheVictimOut() throws Exception {
+        when(authService.loginAsync(any())).thenReturn(CompletableFuture.completedFuture(ResponseEntity.ok().build()));
+
+        // O atacante passa duas vezes pelo IP; as tentativas seguintes param antes do balde do email
+        login("10.0.1.1").andExpect(request().asyncStarted());
+        login("10.0.1.1").andExpect(request().asyncStarted());
+        for (int i = 0; i < 3; i++) {
+            login("10.0.1.1").andExpect(status().isTooManyRequests());
+        }
+
+        // A vítima, de outro IP, ainda consegue entrar
+        login("10.0.1.2").andExpect(request().asyncStarted());
+        login("10.0.1.3").andExpect(status().isTooManyRequests());
+    }
+
+    private ResultActions login(String remoteAddr) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .with(request -> {
+                    request.setRemoteAddr(remoteAddr);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\": \"vitima@auren.com\", \"password\": \"errada\"}"));
+    }
+}
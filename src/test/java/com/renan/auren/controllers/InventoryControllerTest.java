@@ -0,0 +1,66 @@
+package com.renan.auren.controllers;
+
+import com.renan.auren.domain.entities.InventoryItem;
+import com.renan.auren.services.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Baldes pequenos e sem reposição durante o teste, para contar exatamente os tokens consumidos
+@SpringBootTest(properties = {
+        "auren.ratelimit.redeem-ip.capacity=2",
+        "auren.ratelimit.redeem-ip.refill-period=1h",
+        "auren.ratelimit.redeem-user.capacity=3",
+        "auren.ratelimit.redeem-user.refill-period=1h"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class InventoryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private InventoryService inventoryService;
+
+    @Test
+    void redeemsRejectedByTheIpDoNotDrainTheUserBucket() throws Exception {
+        when(inventoryService.addItemToInventoryAsync(anyLong(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new InventoryItem()));
+
+        // Duas passam pelo IP e consomem dois tokens do usuário; as outras três param no IP
+        redeem("10.0.0.1").andExpect(request().asyncStarted());
+        redeem("10.0.0.1").andExpect(request().asyncStarted());
+        for (int i = 0; i < 3; i++) {
+            redeem("10.0.0.1").andExpect(status().isTooManyRequests());
+        }
+
+        // De outro IP o usuário ainda tem um token
+        redeem("10.0.0.2").andExpect(request().asyncStarted());
+        redeem("10.0.0.3").andExpect(status().isTooManyRequests());
+    }
+
+    private ResultActions redeem(String remoteAddr) throws Exception {
+        return mockMvc.perform(post("/api/inventory/redeem")
+                .with(request -> {
+                    request.setRemoteAddr(remoteAddr);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\": 77, \"redeemCode\": \"RATE01\"}"));
+    }
+}
@@ -0,0 +1,182 @@
+package com.renan.auren.controllers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.renan.auren.domain.entities.Item;
+import com.renan.auren.services.ItemService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Contexto completo com o engine em memória; o catálogo tem ao menos o item criado em setUp
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ItemControllerTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        if (itemService.getItemByRedeemCodeAsync("CTRL01").get() == null) {
+            Item item = new Item();
+            item.setName("Amuleto");
+            item.setRedeemCode("CTRL01");
+            item.setActive(true);
+            itemService.createItemAsync(item).get();
+        }
+    }
+
+    @Test
+    void catalogIsServedAsCborWhenAsked() throws Exception {
+        MvcResult result = perform(get("/api/items").accept(MediaType.APPLICATION_CBOR));
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+        assertTrue(containsAmulet(new CBORMapper(), result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    void catalogIsServedAsSmileWhenAsked() throws Exception {
+        MvcResult result = perform(get("/api/items").accept(SMILE));
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE));
+        assertTrue(containsAmulet(new SmileMapper(), result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    void jsonStaysTheDefaultWhenItIsPreferred() throws Exception {
+        MvcResult result = perform(get("/api/items")
+                .header(HttpHeaders.ACCEPT, "application/json, application/cbor;q=0.5"));
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        assertTrue(containsAmulet(new ObjectMapper(), result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    void createdItemIsWrittenByTheNegotiatedBinaryConverter() throws Exception {
+        MvcResult result = perform(post("/api/items")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Anel\", \"redeemCode\": \"CTRL02\", \"active\": true}")
+                .accept(SMILE));
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE));
+        Item created = new SmileMapper().readValue(result.getResponse().getContentAsByteArray(), Item.class);
+        assertEquals("Anel", created.getName());
+        assertNotNull(created.getId());
+    }
+
+    @Test
+    void matchingETagIsNotModified() throws Exception {
+        String etag = catalog(get("/api/items")).getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult revalidated = catalog(get("/api/items").header(HttpHeaders.IF_NONE_MATCH, "\"outro\", W/" + etag));
+
+        assertEquals(304, revalidated.getResponse().getStatus());
+        assertEquals(etag, revalidated.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(0, revalidated.getResponse().getContentAsByteArray().length);
+    }
+
+    @Test
+    void eachRepresentationHasItsOwnETag() throws Exception {
+        String json = catalog(get("/api/items")).getResponse().getHeader(HttpHeaders.ETAG);
+        String gzip = catalog(get("/api/items").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .getResponse().getHeader(HttpHeaders.ETAG);
+        String cbor = catalog(get("/api/items").accept(MediaType.APPLICATION_CBOR)).getResponse().getHeader(HttpHeaders.ETAG);
+        String smile = catalog(get("/api/items").accept(SMILE)).getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertEquals(4, Set.of(json, gzip, cbor, smile).size());
+        // O ETag do JSON não revalida o CBOR; entre JSON e JSON+gzip o conteúdo é o mesmo e vale qualquer um
+        assertEquals(200, catalog(get("/api/items").accept(MediaType.APPLICATION_CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH, json)).getResponse().getStatus());
+        assertEquals(304, catalog(get("/api/items")
+                .header(HttpHeaders.IF_NONE_MATCH, gzip)).getResponse().getStatus());
+        assertEquals(304, catalog(get("/api/items").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, json)).getResponse().getStatus());
+    }
+
+    @Test
+    void gzipFollowsTheAcceptEncodingWeights() throws Exception {
+        assertEquals("gzip", contentEncoding("gzip"));
+        assertEquals("gzip", contentEncoding("br;q=1.0, GZIP;q=0.5"));
+        assertEquals("gzip", contentEncoding("*;q=0.3"));
+        assertNull(contentEncoding("gzip;q=0"));
+        assertNull(contentEncoding("gzip;q=0.0, *"));
+        assertNull(contentEncoding("*;q=0"));
+        assertNull(contentEncoding("identity"));
+        assertNull(contentEncoding(null));
+    }
+
+    @Test
+    void gzippedBodyIsTheJsonCatalog() throws Exception {
+        MvcResult result = catalog(get("/api/items").header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+
+        byte[] json;
+        try (GZIPInputStream gzip = new GZIPInputStream(
+                new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            json = gzip.readAllBytes();
+        }
+        assertTrue(containsAmulet(new ObjectMapper(), json));
+    }
+
+    private String contentEncoding(String acceptEncoding) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/items");
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return catalog(request).getResponse().getHeader(HttpHeaders.CONTENT_ENCODING);
+    }
+
+    private MvcResult catalog(RequestBuilder request) throws Exception {
+        return mockMvc.perform(asyncDispatch(perform(request))).andReturn();
+    }
+
+    private MvcResult perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn();
+    }
+
+    private static boolean containsAmulet(ObjectMapper mapper, byte[] body) throws Exception {
+        List<Item> items = mapper.readValue(body, new TypeReference<List<Item>>() {
+        });
+        return items.stream().anyMatch(item -> "Amuleto".equals(item.getName()));
+    }
+}
@@ -0,0 +1,70 @@
+package com.renan.auren.controllers;
+
+import com.renan.auren.infrastructure.resilience.ServiceUnavailableException;
+import com.renan.auren.services.CatalogImportService;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SeedControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CatalogImportService catalogImportService;
+
+    @Test
+    void unreadableFileIsABadRequest() throws Exception {
+        when(catalogImportService.importJson(any())).thenThrow(new IOException("JSON truncado"));
+
+        mockMvc.perform(post("/api/seed/items/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void storageOutageIsServiceUnavailable() throws Exception {
+        when(catalogImportService.importCsv(any()))
+                .thenThrow(new ServiceUnavailableException("Firestore indisponível", null));
+
+        mockMvc.perform(post("/api/seed/items/import")
+                        .contentType("text/csv")
+                        .content("name,redeemCode\nElmo,CSV01\n"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void unexpectedErrorsAreNotReportedAsBadInput() throws Exception {
+        when(catalogImportService.importJson(any())).thenThrow(new IllegalStateException("bug"));
+
+        // Sem handler: a exceção sai do controller (500 no servidor) em vez de virar 400
+        ServletException error = assertThrows(ServletException.class, () -> mockMvc.perform(
+                post("/api/seed/items/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]")));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+    }
+}
@@ -0,0 +1,123 @@
+package com.renan.auren.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renan.auren.domain.entities.Item;
+import com.renan.auren.domain.repositories.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogSnapshotTest {
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final CatalogSnapshot catalogSnapshot = new CatalogSnapshot();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(catalogSnapshot, "itemRepository", itemRepository);
+        ReflectionTestUtils.setField(catalogSnapshot, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(catalogSnapshot, "cborConverter", new MappingJackson2CborHttpMessageConverter());
+        ReflectionTestUtils.setField(catalogSnapshot, "smileConverter", new MappingJackson2SmileHttpMessageConverter());
+        ReflectionTestUtils.setField(catalogSnapshot, "maxAge", Duration.ofMinutes(1));
+    }
+
+    @Test
+    void etagIsDerivedFromTheContent() throws Exception {
+        when(itemRepository.findAllActive()).thenReturn(
+                CompletableFuture.completedFuture(List.of(item("Poção"))),
+                CompletableFuture.completedFuture(List.of(item("Poção"))),
+                CompletableFuture.completedFuture(List.of(item("Elixir"))));
+
+        String first = catalogSnapshot.get().get().etag();
+        catalogSnapshot.invalidate();
+        String sameContent = catalogSnapshot.get().get().etag();
+        catalogSnapshot.invalidate();
+        String changed = catalogSnapshot.get().get().etag();
+
+        assertEquals(first, sameContent);
+        assertNotEquals(first, changed);
+    }
+
+    @Test
+    void variantsHaveDistinctStrongETags() {
+        CatalogSnapshot.Snapshot snapshot = snapshot("\"abc\"");
+
+        assertEquals("\"abc\"", snapshot.etag(null));
+        assertEquals("\"abc-gzip\"", snapshot.etag(CatalogSnapshot.Snapshot.GZIP));
+        assertEquals("\"abc-cbor\"", snapshot.etag("cbor"));
+    }
+
+    @Test
+    void ifNoneMatchAcceptsListsWeakTagsAndWildcard() {
+        CatalogSnapshot.Snapshot snapshot = snapshot("\"abc\"");
+
+        assertTrue(snapshot.matches("\"abc\""));
+        assertTrue(snapshot.matches("\"xyz\", W/\"abc\""));
+        assertTrue(snapshot.matches("*"));
+        // JSON e JSON+gzip têm o mesmo conteúdo: qualquer um dos dois ETags revalida o JSON
+        assertTrue(snapshot.matches("\"abc-gzip\""));
+        assertTrue(snapshot.matches("\"abc-cbor\"", "cbor"));
+        assertFalse(snapshot.matches("\"abc\"", "cbor"));
+        assertFalse(snapshot.matches("\"abc-smile\"", "cbor"));
+        assertFalse(snapshot.matches(null));
+    }
+
+    @Test
+    void concurrentRequestsShareOneRebuild() throws Exception {
+        CompletableFuture<List<Item>> load = new CompletableFuture<>();
+        when(itemRepository.findAllActive()).thenReturn(load);
+
+        CompletableFuture<CatalogSnapshot.Snapshot> first = catalogSnapshot.get();
+        CompletableFuture<CatalogSnapshot.Snapshot> second = catalogSnapshot.get();
+        load.complete(List.of(item("Poção")));
+
+        assertSame(first.get(), second.get());
+        assertSame(first.get(), catalogSnapshot.get().get());
+        verify(itemRepository, times(1)).findAllActive();
+    }
+
+    @Test
+    void rebuildThatRacedWithAnInvalidateIsNotPublished() throws Exception {
+        CompletableFuture<List<Item>> stale = new CompletableFuture<>();
+        when(itemRepository.findAllActive()).thenReturn(stale,
+                CompletableFuture.completedFuture(List.of(item("Poção"), item("Elixir"))));
+
+        CompletableFuture<CatalogSnapshot.Snapshot> inFlight = catalogSnapshot.get();
+        // Um item muda enquanto o catálogo antigo ainda está sendo lido
+        catalogSnapshot.invalidate();
+        stale.complete(List.of(item("Poção")));
+
+        // Quem esperava a reconstrução antiga recebe o resultado dela, mas ele não fica em cache
+        assertEquals(1, new ObjectMapper().readValue(inFlight.get().json(), List.class).size());
+        assertEquals(2, new ObjectMapper().readValue(catalogSnapshot.get().get().json(), List.class).size());
+        verify(itemRepository, times(2)).findAllActive();
+    }
+
+    private static CatalogSnapshot.Snapshot snapshot(String etag) {
+        return new CatalogSnapshot.Snapshot(new byte[0], new byte[0], new byte[0], new byte[0], etag, 0L);
+    }
+
+    private static Item item(String name) {
+        Item item = new Item();
+        item.setId(name);
+        item.setName(name);
+        item.setActive(true);
+        return item;
+    }
+}
@@ -0,0 +1,179 @@
+package com.renan.auren.infrastructure.cache;
+
+import com.renan.auren.domain.entities.InventoryItem;
+import com.renan.auren.domain.repositories.InventoryRepository;
+import com.renan.auren.infrastructure.persistence.memory.InMemoryInventoryRepository;
+import com.renan.auren.infrastructure.persistence.memory.SimulatedLatency;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class InventoryCacheTest {
+
+    private static final Long USER = 7L;
+
+    private final InventoryCache cache = new InventoryCache(new InMemoryInventoryRepository(), 100, Duration.ofMinutes(1), false);
+
+    @Test
+    void readStartedBeforeAWriteIsNotCached() {
+        long stamp = cache.stamp(USER);
+        cache.update(item("espada", 2));
+
+        cache.putIfUnchanged(USER, List.of(item("espada", 1)), stamp);
+
+        assertNull(cache.get(USER));
+    }
+
+    @Test
+    void readWithoutConcurrentWritesIsCached() {
+        long stamp = cache.stamp(USER);
+
+        cache.putIfUnchanged(USER, List.of(item("espada", 1)), stamp);
+
+        assertEquals(1L, cache.get(USER).get(0).getQuantity());
+    }
+
+    @Test
+    void invalidateDuringALoadDiscardsTheLoadedList() {
+        long stamp = cache.stamp(USER);
+        cache.invalidate(USER);
+
+        cache.putIfUnchanged(USER, List.of(item("espada", 1)), stamp);
+
+        assertNull(cache.get(USER));
+    }
+
+    @Test
+    void updateKeepsTheHighestQuantityWhenRedeemsArriveOutOfOrder() {
+        cache.put(USER, List.of(item("espada", 1)));
+
+        cache.update(item("espada", 3));
+        cache.update(item("espada", 2));
+
+        assertEquals(3L, cache.get(USER).get(0).getQuantity());
+    }
+
+    @Test
+    void loadThatSawTheWriteIsNotCountedTwice() throws Exception {
+        InMemoryInventoryRepository repository = memoryRepository();
+        repository.increment(item("espada", 0), 1).get();
+
+        // A leitura começa, o resgate grava no banco e a leitura já enxerga a escrita
+        long stamp = cache.stamp(USER);
+        InventoryItem stored = repository.increment(item("espada", 0), 1).get();
+        List<InventoryItem> loaded = repository.findByUserId(USER).get();
+        cache.putIfUnchanged(USER, loaded, stamp);
+        // Só então o write-through do resgate chega ao cache
+        cache.update(stored);
+
+        assertEquals(2L, cache.get(USER).get(0).getQuantity());
+    }
+
+    @Test
+    void loadThatMissedTheWriteIsDiscarded() throws Exception {
+        InMemoryInventoryRepository repository = memoryRepository();
+        repository.increment(item("espada", 0), 1).get();
+
+        long stamp = cache.stamp(USER);
+        List<InventoryItem> loaded = repository.findByUserId(USER).get();
+        InventoryItem stored = repository.increment(item("espada", 0), 1).get();
+        cache.update(stored);
+        cache.putIfUnchanged(USER, loaded, stamp);
+
+        assertNull(cache.get(USER));
+    }
+
+    @Test
+    void concurrentWriteThroughsKeepTheLatestQuantity() throws Exception {
+        cache.put(USER, List.of(item("espada", 0)));
+        int threads = 8;
+        int perThread = 500;
+        AtomicLong quantities = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        // Cada resgate devolve a quantidade resultante, que chega ao cache fora de ordem
+                        cache.update(item("espada", quantities.incrementAndGet()));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals((long) threads * perThread, cache.get(USER).get(0).getQuantity());
+    }
+
+    // Reprodução do problema do removalListener assíncrono: o aviso atrasado da entrada antiga
+    // não pode cancelar o listener registrado para a entrada nova
+    @Test
+    void lateRemovalOfAnOldEntryKeepsTheNewListener() throws Exception {
+        AtomicInteger registered = new AtomicInteger();
+        AtomicInteger active = new AtomicInteger();
+        InventoryRepository repository = new InMemoryInventoryRepository() {
+            @Override
+            public Runnable watch(Long userId, Runnable onChange) {
+                registered.incrementAndGet();
+                active.incrementAndGet();
+                AtomicInteger cancelled = new AtomicInteger();
+                return () -> {
+                    if (cancelled.getAndIncrement() == 0) {
+                        active.decrementAndGet();
+                    }
+                };
+            }
+        };
+        InventoryCache listening = new InventoryCache(repository, 100, Duration.ofMinutes(1), true);
+
+        for (int i = 0; i < 50; i++) {
+            listening.put(USER, List.of(item("espada", i)));
+            listening.invalidate(USER);
+        }
+        listening.put(USER, List.of(item("espada", 99)));
+        // put sobre entrada viva reaproveita o listener dela
+        listening.put(USER, List.of(item("espada", 100)));
+
+        // Espera os avisos assíncronos de remoção
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (active.get() != 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+
+        assertEquals(1, active.get());
+        assertEquals(52, registered.get());
+    }
+
+    private static InMemoryInventoryRepository memoryRepository() {
+        InMemoryInventoryRepository repository = new InMemoryInventoryRepository();
+        ReflectionTestUtils.setField(repository, "latency", new SimulatedLatency(Duration.ZERO));
+        return repository;
+    }
+
+    private static InventoryItem item(String itemId, long quantity) {
+        return new InventoryItem(InventoryRepository.inventoryId(USER, itemId), USER, itemId,
+                null, null, null, null, null, quantity, 1L);
+    }
+}
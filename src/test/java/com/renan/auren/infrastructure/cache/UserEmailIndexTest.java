@@ -0,0 +1,58 @@
+package com.renan.auren.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UserEmailIndexTest {
+
+    private static final String EMAIL = "ana@auren.dev";
+
+    private final UserEmailIndex index = new UserEmailIndex(100, Duration.ofHours(1), Duration.ofMillis(100));
+
+    @Test
+    void unknownEmailsExpireSoonerThanKnownOnes() throws Exception {
+        index.put(EMAIL, 1L);
+        index.put("ninguem@auren.dev", null);
+
+        assertEquals(Optional.empty(), index.get("ninguem@auren.dev"));
+        Thread.sleep(300);
+
+        assertNull(index.get("ninguem@auren.dev"));
+        assertEquals(Optional.of(1L), index.get(EMAIL));
+    }
+
+    @Test
+    void lookupWithoutConcurrentWritesIsCached() {
+        long stamp = index.stamp(EMAIL);
+
+        index.putIfUnchanged(EMAIL, null, stamp);
+
+        assertEquals(Optional.empty(), index.get(EMAIL));
+    }
+
+    @Test
+    void staleNegativeDoesNotReplaceASignUp() {
+        long stamp = index.stamp(EMAIL);
+        // O cadastro termina enquanto a busca (que não achou o email) ainda está em andamento
+        index.put(EMAIL, 7L);
+
+        index.putIfUnchanged(EMAIL, null, stamp);
+
+        assertEquals(Optional.of(7L), index.get(EMAIL));
+    }
+
+    @Test
+    void invalidateDuringALookupDiscardsItsResult() {
+        long stamp = index.stamp(EMAIL);
+        index.invalidate(EMAIL);
+
+        index.putIfUnchanged(EMAIL, 3L, stamp);
+
+        assertNull(index.get(EMAIL));
+    }
+}
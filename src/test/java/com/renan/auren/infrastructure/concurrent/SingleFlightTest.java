@@ -0,0 +1,71 @@
+package com.renan.auren.infrastructure.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flight.execute("ABC", () -> {
+            loads.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> second = flight.execute("ABC", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("outro");
+        });
+        pending.complete("item");
+
+        assertEquals("item", first.get());
+        assertEquals("item", second.get());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void finishedLoadsAreNotReused() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+
+        flight.execute("ABC", () -> CompletableFuture.completedFuture("v" + loads.incrementAndGet())).get();
+        String result = flight.execute("ABC", () -> CompletableFuture.completedFuture("v" + loads.incrementAndGet())).get();
+
+        assertEquals("v2", result);
+    }
+
+    @Test
+    void failuresReachEveryWaiterAndReleaseTheKey() throws Exception {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.execute("ABC", () -> pending);
+        CompletableFuture<String> second = flight.execute("ABC", () -> pending);
+        pending.completeExceptionally(new IllegalStateException("falhou"));
+
+        ExecutionException error = assertThrows(ExecutionException.class, first::get);
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertThrows(ExecutionException.class, second::get);
+        assertEquals("ok", flight.execute("ABC", () -> CompletableFuture.completedFuture("ok")).get());
+    }
+
+    @Test
+    void cancellingOneCallerDoesNotAffectTheOthers() throws Exception {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.execute("ABC", () -> pending);
+        CompletableFuture<String> second = flight.execute("ABC", () -> pending);
+
+        first.cancel(true);
+        pending.complete("item");
+
+        assertEquals("item", second.get());
+    }
+}
@@ -0,0 +1,74 @@
+package com.renan.auren.infrastructure.logging;
+
+import com.google.api.core.SettableApiFuture;
+import com.renan.auren.infrastructure.concurrent.Futures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MdcPropagationTest {
+
+    private static final String KEY = CorrelationIdFilter.MDC_KEY;
+
+    @AfterEach
+    void clearMdc() {
+        MDC.clear();
+    }
+
+    @Test
+    void executorRunsTasksWithTheSubmitterContextAndRestoresTheWorker() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            pool.submit(() -> MDC.put(KEY, "do-worker")).get();
+
+            MDC.put(KEY, "req-1");
+            String seen = CompletableFuture.supplyAsync(() -> MDC.get(KEY), MdcPropagation.executor(pool)).get();
+
+            assertEquals("req-1", seen);
+            assertEquals("do-worker", pool.submit(() -> MDC.get(KEY)).get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void scheduledTasksSeeTheSchedulerContext() throws Exception {
+        ScheduledThreadPoolExecutor scheduler = MdcPropagation.scheduledExecutor(1, Thread.ofPlatform().factory());
+        try {
+            MDC.put(KEY, "req-2");
+            AtomicReference<String> seen = new AtomicReference<>();
+            scheduler.schedule(() -> seen.set(MDC.get(KEY)), 10, TimeUnit.MILLISECONDS).get();
+
+            assertEquals("req-2", seen.get());
+            MDC.clear();
+            assertNull(scheduler.submit(() -> MDC.get(KEY)).get());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void firestoreContinuationsKeepTheCorrelationId() throws Exception {
+        SettableApiFuture<String> apiFuture = SettableApiFuture.create();
+
+        MDC.put(KEY, "req-3");
+        CompletableFuture<String> continuation = Futures.toCompletable(apiFuture)
+                .thenApply(result -> result + ":" + MDC.get(KEY));
+        MDC.clear();
+
+        // Completa de outra thread, como o callback do cliente gRPC
+        Thread.ofPlatform().start(() -> apiFuture.set("doc")).join();
+
+        assertEquals("doc:req-3", continuation.get());
+    }
+}
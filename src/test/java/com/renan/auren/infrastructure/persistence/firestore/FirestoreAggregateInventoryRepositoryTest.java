@@ -0,0 +1,187 @@
+package com.renan.auren.infrastructure.persistence.firestore;
+
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.Transaction;
+import com.google.cloud.firestore.WriteBatch;
+import com.renan.auren.domain.entities.InventoryItem;
+import com.renan.auren.domain.repositories.InventoryRepository;
+import com.renan.auren.infrastructure.metrics.FirestoreMetrics;
+import com.renan.auren.infrastructure.resilience.FirestoreResilience;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Firestore simulado com mocks: o documento agregado do usuário é o snapshot configurado em cada teste
+class FirestoreAggregateInventoryRepositoryTest {
+
+    private static final Long USER = 5L;
+    private static final String ITEM = "espada";
+
+    private final Firestore firestore = mock(Firestore.class);
+    private final DocumentReference docRef = mock(DocumentReference.class);
+    private final DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+    private final Transaction transaction = mock(Transaction.class);
+    private final WriteBatch batch = mock(WriteBatch.class);
+    private final FirestoreAggregateInventoryRepository repository = new FirestoreAggregateInventoryRepository();
+    private FirestoreResilience resilience;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        resilience = new FirestoreResilience(new FirestoreMetrics(new SimpleMeterRegistry()), new MockEnvironment(),
+                Duration.ofSeconds(1), 3, Duration.ofMillis(1), Duration.ofMillis(5),
+                50, 50, Duration.ofSeconds(10), 4, 4, 4);
+        FirestoreClientManager clientManager = mock(FirestoreClientManager.class);
+        when(clientManager.get()).thenReturn(firestore);
+        ReflectionTestUtils.setField(repository, "clientManager", clientManager);
+        ReflectionTestUtils.setField(repository, "resilience", resilience);
+
+        CollectionReference collection = mock(CollectionReference.class);
+        when(firestore.collection("user_inventories")).thenReturn(collection);
+        when(collection.document(String.valueOf(USER))).thenReturn(docRef);
+        when(snapshot.getId()).thenReturn(String.valueOf(USER));
+        when(transaction.get(docRef)).thenReturn(ApiFutures.immediateFuture(snapshot));
+        when(firestore.runTransaction(any(Transaction.Function.class))).thenAnswer(invocation ->
+                ApiFutures.immediateFuture(((Transaction.Function<Object>) invocation.getArgument(0))
+                        .updateCallback(transaction)));
+        when(firestore.getAll(any(DocumentReference[].class))).thenReturn(ApiFutures.immediateFuture(List.of(snapshot)));
+        when(firestore.batch()).thenReturn(batch);
+        when(batch.commit()).thenReturn(ApiFutures.immediateFuture(List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        resilience.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void firstRedeemCreatesTheUserDocument() throws Exception {
+        when(snapshot.exists()).thenReturn(false);
+
+        InventoryItem stored = repository.increment(template(2000L), 1).get();
+
+        ArgumentCaptor<Map<String, Object>> data = ArgumentCaptor.forClass(Map.class);
+        verify(transaction).create(eq(docRef), data.capture());
+        Map<String, Object> entry = ((Map<String, Map<String, Object>>) data.getValue().get("items")).get(ITEM);
+        assertEquals(1L, entry.get("quantity"));
+        assertEquals(2000L, entry.get("acquiredAt"));
+        assertEquals(InventoryRepository.inventoryId(USER, ITEM), stored.getId());
+        assertEquals(1L, stored.getQuantity());
+        assertEquals(ITEM, stored.getItemName());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void newItemInAnExistingDocumentAddsOnlyItsEntry() throws Exception {
+        existingItems(Map.of("arco", entry(3L, 500L)));
+
+        InventoryItem stored = repository.increment(template(2000L), 1).get();
+
+        ArgumentCaptor<Map<String, Object>> created = ArgumentCaptor.forClass(Map.class);
+        verify(transaction).update(eq(docRef), eq(FieldPath.of("items", ITEM)), created.capture());
+        assertEquals(Map.of("quantity", 1L, "acquiredAt", 2000L), created.getValue());
+        verify(transaction, never()).create(any(DocumentReference.class), anyMap());
+        assertEquals(2000L, stored.getAcquiredAt());
+    }
+
+    @Test
+    void repeatRedeemUpdatesOnlyTheQuantityAndKeepsTheFirstAcquiredAt() throws Exception {
+        existingItems(Map.of(ITEM, entry(4L, 1000L)));
+
+        InventoryItem stored = repository.increment(template(2000L), 2).get();
+
+        verify(transaction).update(docRef, FieldPath.of("items", ITEM, "quantity"), 6L);
+        verify(transaction, never()).create(any(DocumentReference.class), anyMap());
+        assertEquals(6L, stored.getQuantity());
+        assertEquals(1000L, stored.getAcquiredAt());
+    }
+
+    @Test
+    void redeemIsOneTransactionWithoutReadBack() throws Exception {
+        existingItems(Map.of(ITEM, entry(1L, 1000L)));
+
+        repository.increment(template(2000L), 1).get();
+
+        verify(firestore, times(1)).runTransaction(any(Transaction.Function.class));
+        verify(docRef, never()).get();
+        verify(docRef, never()).set(anyMap(), any(SetOptions.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchSetsAcquiredAtOnlyForItemsTheUserDoesNotHaveYet() throws Exception {
+        existingItems(Map.of(ITEM, entry(1L, 1000L)));
+
+        Map<String, Throwable> failures = repository.incrementAll(List.of(
+                new InventoryRepository.Increment(template(ITEM, 2000L), 2),
+                new InventoryRepository.Increment(template("mana", 3000L), 1))).get();
+
+        assertTrue(failures.isEmpty());
+        ArgumentCaptor<Map<String, Object>> data = ArgumentCaptor.forClass(Map.class);
+        verify(batch).set(eq(docRef), data.capture(), any(SetOptions.class));
+        Map<String, Map<String, Object>> items = (Map<String, Map<String, Object>>) data.getValue().get("items");
+        assertFalse(items.get(ITEM).containsKey("acquiredAt"));
+        assertEquals(FieldValue.increment(2L), items.get(ITEM).get("quantity"));
+        assertEquals(3000L, items.get("mana").get("acquiredAt"));
+        assertEquals(FieldValue.increment(1L), items.get("mana").get("quantity"));
+    }
+
+    @Test
+    void pagesAreServedFromTheWholeInventory() {
+        assertTrue(repository.readsWholeInventory());
+    }
+
+    private void existingItems(Map<String, Object> items) {
+        when(snapshot.exists()).thenReturn(true);
+        when(snapshot.get("items")).thenReturn(items);
+    }
+
+    private static Map<String, Object> entry(long quantity, long acquiredAt) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("quantity", quantity);
+        entry.put("acquiredAt", acquiredAt);
+        return entry;
+    }
+
+    private static InventoryItem template(Long acquiredAt) {
+        return template(ITEM, acquiredAt);
+    }
+
+    private static InventoryItem template(String itemId, Long acquiredAt) {
+        InventoryItem item = new InventoryItem();
+        item.setUserId(USER);
+        item.setItemId(itemId);
+        item.setItemName(itemId);
+        item.setAcquiredAt(acquiredAt);
+        return item;
+    }
+}
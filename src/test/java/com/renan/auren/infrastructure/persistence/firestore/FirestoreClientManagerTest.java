@@ -0,0 +1,125 @@
+package com.renan.auren.infrastructure.persistence.firestore;
+
+import com.google.cloud.firestore.Firestore;
+import com.renan.auren.infrastructure.metrics.FirestoreMetrics;
+import com.renan.auren.infrastructure.security.FirebaseCredentials;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+// O cliente real é trocado por mocks: cada build() devolve um Firestore novo
+class FirestoreClientManagerTest {
+
+    private static final Duration CLOSE_GRACE = Duration.ofMillis(300);
+
+    private final AtomicInteger builds = new AtomicInteger();
+    private final CountDownLatch buildGate = new CountDownLatch(1);
+    private volatile boolean failBuilds;
+    private volatile boolean gateBuilds;
+
+    private final FirestoreClientManager manager = new FirestoreClientManager(
+            new FirebaseCredentials(null, "auren-test"), new FirestoreMetrics(new SimpleMeterRegistry()),
+            1, Duration.ofSeconds(60), Duration.ofSeconds(20), CLOSE_GRACE, Duration.ofSeconds(1), 2) {
+        @Override
+        Firestore build() {
+            if (gateBuilds) {
+                try {
+                    buildGate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            builds.incrementAndGet();
+            if (failBuilds) {
+                throw new IllegalStateException("credenciais inválidas");
+            }
+            return mock(Firestore.class);
+        }
+    };
+
+    @Test
+    void concurrentFailuresRebuildTheClientOnce() throws Exception {
+        Firestore failed = install();
+        gateBuilds = true;
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<CompletableFuture<CompletableFuture<Firestore>>> calls = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                calls.add(CompletableFuture.supplyAsync(() -> manager.reconnect(failed), pool));
+            }
+            // Só libera a reconstrução depois que todos já pediram a sua
+            Thread.sleep(100);
+            buildGate.countDown();
+
+            Firestore rebuilt = calls.get(0).get().get();
+            assertSame(rebuilt, manager.get());
+            for (CompletableFuture<CompletableFuture<Firestore>> call : calls) {
+                assertSame(rebuilt, call.get().get());
+            }
+            assertEquals(1, builds.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void reconnectWithAnAlreadyReplacedClientReturnsTheCurrentOne() throws Exception {
+        Firestore failed = install();
+        Firestore rebuilt = manager.reconnect(failed).get();
+
+        assertSame(rebuilt, manager.reconnect(failed).get());
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    void oldClientIsShutDownOnlyAfterTheGracePeriod() throws Exception {
+        Firestore failed = install();
+
+        manager.reconnect(failed).get();
+
+        verify(failed, never()).shutdown();
+        verify(failed, timeout(CLOSE_GRACE.toMillis() * 10)).shutdown();
+    }
+
+    @Test
+    void failedRebuildKeepsTheClientAndAllowsANewAttempt() throws Exception {
+        Firestore failed = install();
+        failBuilds = true;
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> manager.reconnect(failed).get());
+        assertEquals("credenciais inválidas", error.getCause().getMessage());
+        assertSame(failed, manager.get());
+
+        failBuilds = false;
+        Firestore rebuilt = manager.reconnect(failed).get();
+        assertSame(rebuilt, manager.get());
+        assertEquals(2, builds.get());
+        verify(failed, timeout(CLOSE_GRACE.toMillis() * 10)).shutdown();
+    }
+
+    // Instala um cliente sem passar por start(), que faria o ping de aquecimento
+    private Firestore install() {
+        Firestore firestore = mock(Firestore.class);
+        ReflectionTestUtils.setField(manager, "current", firestore);
+        return firestore;
+    }
+}
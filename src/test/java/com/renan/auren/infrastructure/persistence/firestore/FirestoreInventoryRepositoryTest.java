@@ -0,0 +1,125 @@
+package com.renan.auren.infrastructure.persistence.firestore;
+
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Transaction;
+import com.renan.auren.domain.entities.InventoryItem;
+import com.renan.auren.domain.repositories.InventoryRepository;
+import com.renan.auren.infrastructure.metrics.FirestoreMetrics;
+import com.renan.auren.infrastructure.resilience.FirestoreResilience;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Firestore simulado com mocks: a transação é executada na hora sobre o snapshot configurado em cada teste
+class FirestoreInventoryRepositoryTest {
+
+    private static final Long USER = 5L;
+    private static final String ITEM = "espada";
+    private static final String ID = InventoryRepository.inventoryId(USER, ITEM);
+
+    private final Firestore firestore = mock(Firestore.class);
+    private final DocumentReference docRef = mock(DocumentReference.class);
+    private final DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+    private final Transaction transaction = mock(Transaction.class);
+    private final FirestoreInventoryRepository repository = new FirestoreInventoryRepository();
+    private FirestoreResilience resilience;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        resilience = new FirestoreResilience(new FirestoreMetrics(new SimpleMeterRegistry()), new MockEnvironment(),
+                Duration.ofSeconds(1), 3, Duration.ofMillis(1), Duration.ofMillis(5),
+                50, 50, Duration.ofSeconds(10), 4, 4, 4);
+        FirestoreClientManager clientManager = mock(FirestoreClientManager.class);
+        when(clientManager.get()).thenReturn(firestore);
+        ReflectionTestUtils.setField(repository, "clientManager", clientManager);
+        ReflectionTestUtils.setField(repository, "resilience", resilience);
+
+        CollectionReference collection = mock(CollectionReference.class);
+        when(firestore.collection("inventory")).thenReturn(collection);
+        when(collection.document(ID)).thenReturn(docRef);
+        when(transaction.get(docRef)).thenReturn(ApiFutures.immediateFuture(snapshot));
+        when(firestore.runTransaction(any(Transaction.Function.class))).thenAnswer(invocation ->
+                ApiFutures.immediateFuture(((Transaction.Function<Object>) invocation.getArgument(0))
+                        .updateCallback(transaction)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        resilience.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void firstRedeemCreatesTheDocumentWithTheTemplateAcquiredAt() throws Exception {
+        when(snapshot.exists()).thenReturn(false);
+
+        InventoryItem stored = repository.increment(template(2000L), 1).get();
+
+        ArgumentCaptor<Map<String, Object>> data = ArgumentCaptor.forClass(Map.class);
+        verify(transaction).create(any(DocumentReference.class), data.capture());
+        assertEquals(1L, data.getValue().get("quantity"));
+        assertEquals(2000L, data.getValue().get("acquiredAt"));
+        verify(transaction, never()).update(any(DocumentReference.class), anyString(), any());
+        assertEquals(ID, stored.getId());
+        assertEquals(1L, stored.getQuantity());
+        assertEquals(2000L, stored.getAcquiredAt());
+    }
+
+    @Test
+    void repeatRedeemIncrementsAndKeepsTheFirstAcquiredAt() throws Exception {
+        when(snapshot.exists()).thenReturn(true);
+        when(snapshot.getLong("quantity")).thenReturn(4L);
+        when(snapshot.getLong("acquiredAt")).thenReturn(1000L);
+
+        InventoryItem stored = repository.increment(template(2000L), 2).get();
+
+        verify(transaction).update(docRef, "quantity", 6L);
+        verify(transaction, never()).create(any(DocumentReference.class), anyMap());
+        assertEquals(6L, stored.getQuantity());
+        assertEquals(1000L, stored.getAcquiredAt());
+        assertEquals(ITEM, stored.getItemName());
+    }
+
+    @Test
+    void redeemIsOneTransactionWithoutReadBack() throws Exception {
+        when(snapshot.exists()).thenReturn(true);
+        when(snapshot.getLong("quantity")).thenReturn(1L);
+
+        repository.increment(template(2000L), 1).get();
+
+        verify(firestore, times(1)).runTransaction(any(Transaction.Function.class));
+        verify(docRef, never()).get();
+        verify(docRef, never()).create(anyMap());
+    }
+
+    private static InventoryItem template(Long acquiredAt) {
+        InventoryItem item = new InventoryItem();
+        item.setUserId(USER);
+        item.setItemId(ITEM);
+        item.setItemName(ITEM);
+        item.setAcquiredAt(acquiredAt);
+        return item;
+    }
+}
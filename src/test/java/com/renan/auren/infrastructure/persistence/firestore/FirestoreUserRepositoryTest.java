@@ -0,0 +1,123 @@
+package com.renan.auren.infrastructure.persistence.firestore;
+
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.renan.auren.infrastructure.metrics.FirestoreMetrics;
+import com.renan.auren.infrastructure.resilience.FirestoreResilience;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Firestore simulado com mocks: user_emails/{email} e a consulta por email são configurados em cada teste
+class FirestoreUserRepositoryTest {
+
+    private static final String EMAIL = "caio+jogos@auren.dev";
+    private static final String ENCODED_EMAIL = "caio%2Bjogos%40auren.dev";
+
+    private final Firestore firestore = mock(Firestore.class);
+    private final CollectionReference users = mock(CollectionReference.class, RETURNS_SELF);
+    private final DocumentReference indexRef = mock(DocumentReference.class);
+    private final DocumentSnapshot indexSnapshot = mock(DocumentSnapshot.class);
+    private final QuerySnapshot query = mock(QuerySnapshot.class);
+    private final FirestoreUserRepository repository = new FirestoreUserRepository();
+    private FirestoreResilience resilience;
+
+    @BeforeEach
+    void setUp() {
+        resilience = new FirestoreResilience(new FirestoreMetrics(new SimpleMeterRegistry()), new MockEnvironment(),
+                Duration.ofSeconds(1), 3, Duration.ofMillis(1), Duration.ofMillis(5),
+                50, 50, Duration.ofSeconds(10), 4, 4, 4);
+        FirestoreClientManager clientManager = mock(FirestoreClientManager.class);
+        when(clientManager.get()).thenReturn(firestore);
+        ReflectionTestUtils.setField(repository, "clientManager", clientManager);
+        ReflectionTestUtils.setField(repository, "metrics", new FirestoreMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(repository, "resilience", resilience);
+
+        CollectionReference emails = mock(CollectionReference.class);
+        when(firestore.collection("user_emails")).thenReturn(emails);
+        when(emails.document(ENCODED_EMAIL)).thenReturn(indexRef);
+        when(indexRef.get()).thenReturn(ApiFutures.immediateFuture(indexSnapshot));
+        when(indexRef.set(anyMap())).thenReturn(ApiFutures.immediateFuture(null));
+
+        when(firestore.collection("users")).thenReturn(users);
+        when(users.select(any(FieldPath[].class))).thenReturn(users);
+        when(users.get()).thenReturn(ApiFutures.immediateFuture(query));
+    }
+
+    @AfterEach
+    void tearDown() {
+        resilience.shutdown();
+    }
+
+    @Test
+    void indexedEmailIsResolvedWithoutTheQuery() throws Exception {
+        when(indexSnapshot.exists()).thenReturn(true);
+        when(indexSnapshot.getLong("userId")).thenReturn(12L);
+
+        assertEquals(12L, repository.findIdByEmail(EMAIL).get());
+
+        verify(users, never()).whereEqualTo(anyString(), any());
+        verify(indexRef, never()).set(anyMap());
+    }
+
+    @Test
+    void userWrittenBeforeTheIndexIsFoundAndBackfilled() throws Exception {
+        when(indexSnapshot.exists()).thenReturn(false);
+        QueryDocumentSnapshot document = mock(QueryDocumentSnapshot.class);
+        when(document.getId()).thenReturn("34");
+        when(query.isEmpty()).thenReturn(false);
+        when(query.getDocuments()).thenReturn(List.of(document));
+
+        assertEquals(34L, repository.findIdByEmail(EMAIL).get());
+
+        verify(users).whereEqualTo("email", EMAIL);
+        verify(indexRef, timeout(1000)).set(Map.of("userId", 34L));
+    }
+
+    @Test
+    void failedBackfillDoesNotFailTheLookup() throws Exception {
+        when(indexSnapshot.exists()).thenReturn(false);
+        QueryDocumentSnapshot document = mock(QueryDocumentSnapshot.class);
+        when(document.getId()).thenReturn("56");
+        when(query.isEmpty()).thenReturn(false);
+        when(query.getDocuments()).thenReturn(List.of(document));
+        when(indexRef.set(anyMap())).thenReturn(ApiFutures.immediateFailedFuture(new IllegalArgumentException("negado")));
+
+        assertEquals(56L, repository.findIdByEmail(EMAIL).get());
+    }
+
+    @Test
+    void unknownEmailIsNotBackfilled() throws Exception {
+        when(indexSnapshot.exists()).thenReturn(false);
+        when(query.isEmpty()).thenReturn(true);
+
+        assertNull(repository.findIdByEmail(EMAIL).get());
+
+        verify(indexRef, never()).set(anyMap());
+    }
+}
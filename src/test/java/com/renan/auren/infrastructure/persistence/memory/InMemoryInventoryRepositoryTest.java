@@ -0,0 +1,107 @@
+package com.renan.auren.infrastructure.persistence.memory;
+
+import com.renan.auren.domain.entities.InventoryItem;
+import com.renan.auren.domain.repositories.InventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryInventoryRepositoryTest {
+
+    private static final Long USER = 42L;
+
+    private final InMemoryInventoryRepository repository = new InMemoryInventoryRepository();
+
+    InMemoryInventoryRepositoryTest() {
+        ReflectionTestUtils.setField(repository, "latency", new SimulatedLatency(Duration.ZERO));
+    }
+
+    @Test
+    void repeatedRedeemsUpsertOneDocumentWithTheDeterministicId() throws Exception {
+        repository.increment(template("pocao", 100L), 1).get();
+        InventoryItem second = repository.increment(template("pocao", 200L), 2).get();
+
+        List<InventoryItem> items = repository.findByUserId(USER).get();
+        assertEquals(1, items.size());
+        assertEquals(InventoryRepository.inventoryId(USER, "pocao"), items.get(0).getId());
+        assertEquals(3L, items.get(0).getQuantity());
+        assertEquals(3L, second.getQuantity());
+        // O incremento mantém a data do primeiro resgate
+        assertEquals(100L, items.get(0).getAcquiredAt());
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws Exception {
+        int threads = 8;
+        int perThread = 250;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        repository.increment(template("espada", System.currentTimeMillis()), 1).get();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<InventoryItem> items = repository.findByUserId(USER).get();
+        assertEquals(1, items.size());
+        assertEquals((long) threads * perThread, items.get(0).getQuantity());
+    }
+
+    @Test
+    void incrementAllMergesIntoTheSameDocuments() throws Exception {
+        repository.increment(template("arco", 1L), 1).get();
+
+        Map<String, Throwable> failures = repository.incrementAll(List.of(
+                new InventoryRepository.Increment(template("arco", 2L), 2),
+                new InventoryRepository.Increment(template("arco", 3L), 3),
+                new InventoryRepository.Increment(template("mana", 4L), 1))).get();
+
+        assertTrue(failures.isEmpty());
+        List<InventoryItem> items = repository.findByUserId(USER).get();
+        assertEquals(2, items.size());
+        assertEquals(6L, items.get(0).getQuantity());
+        assertEquals(1L, items.get(0).getAcquiredAt());
+        assertEquals(1L, items.get(1).getQuantity());
+    }
+
+    @Test
+    void returnedItemsAreCopies() throws Exception {
+        InventoryItem stored = repository.increment(template("escudo", 1L), 1).get();
+        stored.setQuantity(99L);
+
+        assertEquals(1L, repository.findByUserId(USER).get().get(0).getQuantity());
+    }
+
+    private static InventoryItem template(String itemId, Long acquiredAt) {
+        InventoryItem item = new InventoryItem();
+        item.setUserId(USER);
+        item.setItemId(itemId);
+        item.setItemName(itemId);
+        item.setAcquiredAt(acquiredAt);
+        return item;
+    }
+}
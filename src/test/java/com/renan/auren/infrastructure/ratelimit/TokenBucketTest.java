@@ -0,0 +1,42 @@
+package com.renan.auren.infrastructure.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstUpToCapacityThenRejects() {
+        TokenBucket bucket = new TokenBucket(0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(0, SECOND, 3));
+        }
+        assertEquals(SECOND, bucket.tryAcquire(0, SECOND, 3));
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(0);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(0, SECOND, 3);
+        }
+
+        assertEquals(0, bucket.tryAcquire(SECOND, SECOND, 3));
+        assertEquals(SECOND / 2, bucket.tryAcquire(SECOND + SECOND / 2, SECOND, 3));
+    }
+
+    @Test
+    void idleBucketDoesNotAccumulateMoreThanCapacity() {
+        TokenBucket bucket = new TokenBucket(0);
+
+        long later = 100 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(later, SECOND, 3));
+        }
+        assertEquals(SECOND, bucket.tryAcquire(later, SECOND, 3));
+    }
+}
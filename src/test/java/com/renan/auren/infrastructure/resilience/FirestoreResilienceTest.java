@@ -0,0 +1,109 @@
+package com.renan.auren.infrastructure.resilience;
+
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.rpc.ApiExceptionFactory;
+import com.renan.auren.infrastructure.metrics.FirestoreMetrics;
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FirestoreResilienceTest {
+
+    private FirestoreResilience resilience;
+
+    @BeforeEach
+    void setUp() {
+        resilience = new FirestoreResilience(new FirestoreMetrics(new SimpleMeterRegistry()), new MockEnvironment(),
+                Duration.ofMillis(200), 3, Duration.ofMillis(1), Duration.ofMillis(5),
+                50, 50, Duration.ofSeconds(10), 4, 4, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        resilience.shutdown();
+    }
+
+    @Test
+    void retriesTransientFailuresOfIdempotentOperations() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = resilience.call(FirestoreResilience.Pool.ITEMS, "items", "findAll", true, () ->
+                calls.incrementAndGet() < 3 ? unavailable() : CompletableFuture.completedFuture("ok")).get();
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void neverRetriesNonIdempotentOperations() {
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> result = resilience.call(FirestoreResilience.Pool.INVENTORY, "inventory",
+                "increment", false, () -> {
+                    calls.incrementAndGet();
+                    return unavailable();
+                });
+
+        assertThrows(ExecutionException.class, result::get);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void doesNotRetryPermanentFailures() {
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> result = resilience.call(FirestoreResilience.Pool.USERS, "users", "findById",
+                true, () -> {
+                    calls.incrementAndGet();
+                    return CompletableFuture.failedFuture(new IllegalArgumentException("inválido"));
+                });
+
+        ExecutionException error = assertThrows(ExecutionException.class, result::get);
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void fullBulkheadRejectsWithoutWaiting() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        for (int i = 0; i < 4; i++) {
+            resilience.call(FirestoreResilience.Pool.INVENTORY, "inventory", "findByUserId", false, () -> pending);
+        }
+
+        CompletableFuture<String> rejected = resilience.call(FirestoreResilience.Pool.INVENTORY, "inventory",
+                "findByUserId", false, () -> CompletableFuture.completedFuture("ok"));
+
+        // Rejeitada na própria chamada, sem bloquear a thread à espera de uma vaga
+        assertTrue(rejected.isCompletedExceptionally());
+        ExecutionException error = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(ServiceUnavailableException.class, error.getCause());
+        pending.complete("ok");
+    }
+
+    @Test
+    void reportsDeadlineAsServiceUnavailable() {
+        CompletableFuture<String> result = resilience.call(FirestoreResilience.Pool.USERS, "users", "findByEmail",
+                false, CompletableFuture::new);
+
+        ExecutionException error = assertThrows(ExecutionException.class, result::get);
+        assertInstanceOf(ServiceUnavailableException.class, error.getCause());
+    }
+
+    private static <T> CompletableFuture<T> unavailable() {
+        return CompletableFuture.failedFuture(ApiExceptionFactory.createException(
+                new RuntimeException("Firestore indisponível"), GrpcStatusCode.of(Status.Code.UNAVAILABLE), true));
+    }
+}
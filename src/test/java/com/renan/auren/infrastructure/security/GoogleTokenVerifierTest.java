@@ -0,0 +1,106 @@
+package com.renan.auren.infrastructure.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renan.auren.infrastructure.metrics.AuthMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GoogleTokenVerifierTest {
+
+    private HttpServer server;
+    private final AtomicInteger tokenInfoCalls = new AtomicInteger();
+    private final AtomicInteger userInfoCalls = new AtomicInteger();
+
+    private volatile int tokenInfoStatus;
+    private volatile String tokenInfoBody;
+    private volatile int userInfoStatus;
+    private volatile String userInfoBody;
+
+    private GoogleTokenVerifier verifier;
+
+    @BeforeEach
+    void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/tokeninfo", exchange -> {
+            tokenInfoCalls.incrementAndGet();
+            respond(exchange, tokenInfoStatus, tokenInfoBody);
+        });
+        server.createContext("/userinfo", exchange -> {
+            userInfoCalls.incrementAndGet();
+            respond(exchange, userInfoStatus, userInfoBody);
+        });
+        server.start();
+
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        verifier = new GoogleTokenVerifier(new ObjectMapper(), new AuthMetrics(new SimpleMeterRegistry()),
+                baseUrl + "/tokeninfo", baseUrl + "/userinfo",
+                Duration.ofSeconds(2), 100, Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void resolvesIdTokenAndCachesUntilExpiry() throws Exception {
+        long exp = System.currentTimeMillis() / 1000 + 3600;
+        tokenInfoStatus = 200;
+        tokenInfoBody = "{\"email\":\"id@auren.com\",\"exp\":\"" + exp + "\"}";
+        userInfoStatus = 401;
+        userInfoBody = "{\"error\":\"invalid_token\"}";
+
+        assertEquals("id@auren.com", verifier.resolveEmail("id-token").get());
+        int callsAfterFirstLogin = tokenInfoCalls.get();
+
+        assertEquals("id@auren.com", verifier.resolveEmail("id-token").get());
+        assertEquals(callsAfterFirstLogin, tokenInfoCalls.get());
+    }
+
+    @Test
+    void fallsBackToUserInfoForAccessTokens() throws Exception {
+        tokenInfoStatus = 400;
+        tokenInfoBody = "{\"error\":\"invalid_token\",\"error_description\":\"Invalid Value\"}";
+        userInfoStatus = 200;
+        userInfoBody = "{\"email\":\"access@auren.com\"}";
+
+        assertEquals("access@auren.com", verifier.resolveEmail("access-token").get());
+    }
+
+    @Test
+    void failsWhenNeitherEndpointAcceptsTheToken() {
+        tokenInfoStatus = 400;
+        tokenInfoBody = "{\"error\":\"invalid_token\"}";
+        userInfoStatus = 401;
+        userInfoBody = "{\"error\":\"invalid_token\"}";
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> verifier.resolveEmail("bad-token").get());
+        assertInstanceOf(GoogleTokenVerifier.GoogleTokenException.class, e.getCause());
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
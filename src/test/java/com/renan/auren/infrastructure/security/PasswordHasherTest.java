@@ -0,0 +1,92 @@
+package com.renan.auren.infrastructure.security;
+
+import com.renan.auren.infrastructure.resilience.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Custo mínimo do bcrypt para o teste ser rápido; uma thread e fila de uma posição para saturar sem esforço
+class PasswordHasherTest {
+
+    private final PasswordHasher hasher = new PasswordHasher(4, 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Test
+    void hashedPasswordMatchesOnlyTheOriginal() throws Exception {
+        String hash = hasher.hash("segredo").get();
+
+        assertNotEquals("segredo", hash);
+        assertTrue(hasher.matches("segredo", hash).get());
+        assertFalse(hasher.matches("outra", hash).get());
+        assertFalse(hasher.needsRehash(hash));
+    }
+
+    @Test
+    void hashingTwiceUsesDifferentSalts() throws Exception {
+        assertNotEquals(hasher.hash("segredo").get(), hasher.hash("segredo").get());
+    }
+
+    @Test
+    void plainTextPasswordsStillMatchAndAskForRehash() throws Exception {
+        assertTrue(hasher.matches("antiga", "antiga").get());
+        assertFalse(hasher.matches("antiga", "outra").get());
+        assertFalse(hasher.matches(null, "antiga").get());
+        assertTrue(hasher.needsRehash("antiga"));
+    }
+
+    @Test
+    void hashWithALowerCostAsksForRehash() throws Exception {
+        PasswordHasher stronger = new PasswordHasher(5, 1, 1);
+        try {
+            String weak = hasher.hash("segredo").get();
+
+            assertTrue(stronger.needsRehash(weak));
+            assertTrue(stronger.matches("segredo", weak).get());
+        } finally {
+            stronger.shutdown();
+        }
+    }
+
+    @Test
+    void saturatedExecutorRejectsWithServiceUnavailable() throws Exception {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(hasher, "executor");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        // Ocupa a única thread e a única posição da fila
+        executor.execute(() -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        running.await();
+        CompletableFuture<String> queued = hasher.hash("na fila");
+
+        CompletableFuture<String> rejected = hasher.hash("recusada");
+
+        ExecutionException error = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(ServiceUnavailableException.class, error.getCause());
+
+        // Liberado o executor, o que estava na fila termina e novos pedidos voltam a ser aceitos
+        release.countDown();
+        assertTrue(hasher.matches("na fila", queued.get()).get());
+        assertTrue(hasher.matches("depois", hasher.hash("depois").get()).get());
+    }
+}
@@ -0,0 +1,61 @@
+package com.renan.auren.infrastructure.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenServiceTest {
+
+    private final TokenService tokenService = new TokenService(100);
+
+    @Test
+    void validTokenIsServedFromTheCache() {
+        String token = tokenService.generateToken("jogador@auren.com", 12L);
+
+        Claims first = tokenService.validateToken(token);
+
+        assertSame(first, tokenService.validateToken(token));
+        assertEquals("jogador@auren.com", tokenService.getEmailFromToken(token));
+        assertEquals(12L, tokenService.getUserIdFromToken(token));
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceItExpires() throws Exception {
+        // O "exp" do JWT tem resolução de segundos: fica entre agora e um segundo à frente
+        Instant expiration = Instant.now().plusSeconds(1);
+        String token = signed(Date.from(expiration));
+        tokenService.validateToken(token);
+
+        Thread.sleep(Math.max(0, expiration.toEpochMilli() - System.currentTimeMillis()) + 100);
+
+        assertThrows(ExpiredJwtException.class, () -> tokenService.validateToken(token));
+    }
+
+    @Test
+    void tokenWithoutExpirationIsNotCached() {
+        String token = signed(null);
+
+        assertNotSame(tokenService.validateToken(token), tokenService.validateToken(token));
+    }
+
+    private String signed(Date expiration) {
+        SecretKey secretKey = (SecretKey) ReflectionTestUtils.getField(tokenService, "secretKey");
+        return Jwts.builder()
+                .setSubject("jogador@auren.com")
+                .claim("id", 12L)
+                .setExpiration(expiration)
+                .signWith(secretKey)
+                .compact();
+    }
+}
@@ -0,0 +1,127 @@
+package com.renan.auren.services;
+
+import com.renan.auren.domain.entities.Item;
+import com.renan.auren.domain.repositories.ItemRepository;
+import com.renan.auren.dtos.CatalogImportReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Contexto completo com o engine em memória; cada teste usa redeemCodes próprios
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogImportServiceTest {
+
+    @Autowired
+    private CatalogImportService importService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Test
+    void reimportWritesOnlyWhatChanged() throws Exception {
+        importService.importJson(stream("""
+                [{"name": "Poção", "value": 10, "redeemCode": "diff01"},
+                 {"name": "Espada", "value": 50, "redeemCode": "DIFF02"}]"""));
+        String originalId = itemRepository.findActiveByRedeemCode("DIFF01").get().getId();
+
+        CatalogImportReport report = importService.importJson(stream("""
+                {"name": "Poção grande", "value": 10, "redeemCode": "DIFF01"}
+                {"name": "Espada", "value": 50, "redeemCode": "diff02"}
+                {"name": "Arco", "value": 30, "redeemCode": "DIFF03"}"""));
+
+        assertEquals(3, report.read());
+        assertEquals(1, report.created());
+        assertEquals(1, report.updated());
+        assertEquals(1, report.unchanged());
+        assertEquals(0, report.failed());
+        Item updated = itemRepository.findActiveByRedeemCode("DIFF01").get();
+        assertEquals(originalId, updated.getId());
+        assertEquals("Poção grande", updated.getName());
+    }
+
+    @Test
+    void missingAndRepeatedRedeemCodesAreSkipped() throws Exception {
+        CatalogImportReport report = importService.importJson(stream("""
+                [{"name": "Sem código"},
+                 {"name": "Escudo", "redeemCode": "SKIP01"},
+                 {"name": "Escudo repetido", "redeemCode": "skip01"},
+                 {"name": "Em branco", "redeemCode": "  "}]"""));
+
+        assertEquals(4, report.read());
+        assertEquals(1, report.created());
+        assertEquals(3, report.skipped());
+        assertEquals(3, report.errors().size());
+        assertTrue(report.errors().get(1).contains("SKIP01"));
+        assertEquals("Escudo", itemRepository.findActiveByRedeemCode("SKIP01").get().getName());
+    }
+
+    @Test
+    void csvIsParsedWithQuotesAndBadRowsAreSkipped() throws Exception {
+        CatalogImportReport report = importService.importCsv(stream("""
+                \uFEFFname,description,value,redeemCode,active
+                "Cajado, antigo","Diz \"\"olá\"\"",70,csv01,
+                Mana,,abc,CSV02,true
+
+                Invisibilidade,,15,CSV03,false
+                """));
+
+        assertEquals(3, report.read());
+        assertEquals(2, report.created());
+        assertEquals(1, report.skipped());
+        assertEquals(1, report.errors().size());
+        assertTrue(report.errors().get(0).contains("abc"));
+
+        Item cajado = itemRepository.findActiveByRedeemCode("CSV01").get();
+        assertEquals("Cajado, antigo", cajado.getName());
+        assertEquals("Diz \"olá\"", cajado.getDescription());
+        assertEquals(70, cajado.getValue());
+        // Coluna active vazia: o item entra ativo
+        assertTrue(cajado.getActive());
+        boolean inactiveStored = itemRepository.findAll().get().stream()
+                .anyMatch(item -> "CSV03".equals(item.getRedeemCode()) && !item.getActive());
+        assertTrue(inactiveStored);
+    }
+
+    @Test
+    void interruptedImportStillInvalidatesTheCaches() throws Exception {
+        // Consulta antes da importação: o código desconhecido fica em cache como ausente
+        assertNull(itemService.getItemByRedeemCodeAsync("TRUNC01").get());
+
+        // O primeiro item é gravado; o segundo não é JSON válido e interrompe a importação
+        assertThrows(IOException.class, () -> importService.importJson(stream("""
+                {"name": "Elmo", "value": 20, "redeemCode": "TRUNC01"}
+                {"name": "Botas", "value": """)));
+
+        assertNotNull(itemService.getItemByRedeemCodeAsync("TRUNC01").get());
+    }
+
+    @Test
+    void emptyImportReportsNothing() throws Exception {
+        CatalogImportReport report = importService.importItems(Collections.emptyIterator());
+
+        assertEquals(0, report.read());
+        assertEquals(0, report.created());
+        assertTrue(report.errors().isEmpty());
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
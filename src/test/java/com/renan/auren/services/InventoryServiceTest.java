@@ -0,0 +1,205 @@
+package com.renan.auren.services;
+
+import com.renan.auren.domain.entities.InventoryItem;
+import com.renan.auren.domain.entities.Item;
+import com.renan.auren.domain.repositories.InventoryRepository;
+import com.renan.auren.dtos.BulkRedeemRequest;
+import com.renan.auren.dtos.BulkRedeemResponse;
+import com.renan.auren.dtos.InventoryPage;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// Engine em memória com latência simulada, para que leituras concorrentes se sobreponham de verdade.
+// Cada teste usa usuários e redeemCodes próprios.
+@SpringBootTest(properties = "auren.memory.latency=20ms")
+@ActiveProfiles("test")
+class InventoryServiceTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @MockitoSpyBean
+    private InventoryRepository inventoryRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bulkRedeemAggregatesRepeatedCodesIntoOneIncrementPerItem() throws Exception {
+        Item potion = createItem("Poção", "BULK01");
+        Item sword = createItem("Espada", "BULK02");
+
+        BulkRedeemResponse response = inventoryService.redeemBulkAsync(Arrays.asList(
+                new BulkRedeemRequest.Entry(9001L, "BULK01"),
+                new BulkRedeemRequest.Entry(9001L, "bulk01"),
+                new BulkRedeemRequest.Entry(9002L, "BULK01"),
+                new BulkRedeemRequest.Entry(9001L, "BULK02"),
+                new BulkRedeemRequest.Entry(9001L, "NAOEXISTE"),
+                new BulkRedeemRequest.Entry(null, "BULK01"))).get();
+
+        ArgumentCaptor<List<InventoryRepository.Increment>> captor = ArgumentCaptor.forClass(List.class);
+        verify(inventoryRepository, times(1)).incrementAll(captor.capture());
+        Map<String, Long> amounts = new HashMap<>();
+        for (InventoryRepository.Increment increment : captor.getValue()) {
+            amounts.put(InventoryRepository.inventoryId(increment.inventoryItem().getUserId(),
+                    increment.inventoryItem().getItemId()), increment.amount());
+        }
+        assertEquals(Map.of(
+                InventoryRepository.inventoryId(9001L, potion.getId()), 2L,
+                InventoryRepository.inventoryId(9002L, potion.getId()), 1L,
+                InventoryRepository.inventoryId(9001L, sword.getId()), 1L), amounts);
+
+        assertEquals(4, response.redeemed());
+        assertEquals(2, response.failed());
+        List<BulkRedeemResponse.Status> statuses = response.results().stream()
+                .map(BulkRedeemResponse.Result::status)
+                .toList();
+        assertEquals(List.of(BulkRedeemResponse.Status.REDEEMED, BulkRedeemResponse.Status.REDEEMED,
+                BulkRedeemResponse.Status.REDEEMED, BulkRedeemResponse.Status.REDEEMED,
+                BulkRedeemResponse.Status.INVALID_CODE, BulkRedeemResponse.Status.ERROR), statuses);
+
+        InventoryItem stored = findItem(inventoryService.getUserInventoryAsync(9001L).get(), potion.getId());
+        assertEquals(2L, stored.getQuantity());
+    }
+
+    @Test
+    void bulkRedeemReportsOnlyTheEntriesWhoseWritesFailed() throws Exception {
+        Item shield = createItem("Escudo", "BULK03");
+        String failingId = InventoryRepository.inventoryId(9102L, shield.getId());
+
+        // Simula um lote parcialmente gravado: os incrementos de 9102 falham, os demais são gravados
+        doAnswer(invocation -> {
+            List<InventoryRepository.Increment> increments = invocation.getArgument(0);
+            List<InventoryRepository.Increment> accepted = increments.stream()
+                    .filter(increment -> !increment.inventoryItem().getUserId().equals(9102L))
+                    .toList();
+            if (accepted.size() == increments.size()) {
+                return invocation.callRealMethod();
+            }
+            return inventoryRepository.incrementAll(accepted)
+                    .thenApply(ignored -> Map.<String, Throwable>of(failingId, new RuntimeException("lote recusado")));
+        }).when(inventoryRepository).incrementAll(any());
+
+        // Primeiro lê o inventário de 9101 para que ele esteja em cache antes do lote
+        inventoryService.getUserInventoryAsync(9101L).get();
+
+        BulkRedeemResponse response = inventoryService.redeemBulkAsync(List.of(
+                new BulkRedeemRequest.Entry(9101L, "BULK03"),
+                new BulkRedeemRequest.Entry(9102L, "BULK03"))).get();
+
+        assertEquals(1, response.redeemed());
+        assertEquals(1, response.failed());
+        BulkRedeemResponse.Result failed = response.results().get(1);
+        assertEquals(BulkRedeemResponse.Status.ERROR, failed.status());
+        assertEquals(shield.getId(), failed.itemId());
+        assertEquals("lote recusado", failed.error());
+
+        // O cache de 9101 foi descartado pelo lote: a leitura seguinte já vê o item
+        assertNotNull(findItem(inventoryService.getUserInventoryAsync(9101L).get(), shield.getId()));
+        assertNull(findItem(inventoryService.getUserInventoryAsync(9102L).get(), shield.getId()));
+    }
+
+    @Test
+    void cursorPaginationWalksTheWholeInventoryInIdOrder() throws Exception {
+        Long userId = 9201L;
+        List<String> expected = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            Item item = createItem("Item " + i, "PAGE0" + i);
+            inventoryService.addItemToInventoryAsync(userId, item.getRedeemCode()).get();
+            expected.add(InventoryRepository.inventoryId(userId, item.getId()));
+        }
+        expected.sort(null);
+
+        List<String> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            InventoryPage page = inventoryService.getUserInventoryPageAsync(userId, cursor, 2).get();
+            pageSizes.add(page.items().size());
+            for (InventoryItem item : page.items()) {
+                seen.add(item.getId());
+                assertNotNull(item.getItemName());
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(2, 2, 1), pageSizes);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void pagesOfACachedInventoryDoNotGoBackToTheRepository() throws Exception {
+        Long userId = 9211L;
+        for (int i = 1; i <= 3; i++) {
+            Item item = createItem("Item " + i, "CPAGE0" + i);
+            inventoryService.addItemToInventoryAsync(userId, item.getRedeemCode()).get();
+        }
+        List<InventoryItem> all = new ArrayList<>(inventoryService.getUserInventoryAsync(userId).get());
+        all.sort(Comparator.comparing(InventoryItem::getId));
+
+        InventoryPage first = inventoryService.getUserInventoryPageAsync(userId, null, 2).get();
+        InventoryPage second = inventoryService.getUserInventoryPageAsync(userId, first.nextCursor(), 2).get();
+
+        assertEquals(all.subList(0, 2), first.items());
+        assertEquals(all.subList(2, 3), second.items());
+        assertNull(second.nextCursor());
+        verify(inventoryRepository, never()).findPageByUserId(eq(userId), any(), anyInt());
+    }
+
+    @Test
+    void concurrentInventoryReadsShareOneLoad() throws Exception {
+        Long userId = 9301L;
+        Item item = createItem("Arco", "FLIGHT01");
+        inventoryService.addItemToInventoryAsync(userId, item.getRedeemCode()).get();
+        // O resgate deixa o usuário fora do cache; a próxima leitura vai ao banco
+        inventoryService.redeemBulkAsync(List.of(new BulkRedeemRequest.Entry(userId, "FLIGHT01"))).get();
+
+        CompletableFuture<List<InventoryItem>> first = inventoryService.getUserInventoryAsync(userId);
+        CompletableFuture<List<InventoryItem>> second = inventoryService.getUserInventoryAsync(userId);
+
+        assertEquals(2L, findItem(first.get(), item.getId()).getQuantity());
+        assertEquals(first.get(), second.get());
+        verify(inventoryRepository, times(1)).findByUserId(userId);
+    }
+
+    private Item createItem(String name, String redeemCode) throws Exception {
+        Item item = new Item();
+        item.setName(name);
+        item.setRedeemCode(redeemCode);
+        item.setActive(true);
+        return itemService.createItemAsync(item).get();
+    }
+
+    private static InventoryItem findItem(List<InventoryItem> items, String itemId) {
+        for (InventoryItem item : items) {
+            if (itemId.equals(item.getItemId())) {
+                return item;
+            }
+        }
+        return null;
+    }
+}
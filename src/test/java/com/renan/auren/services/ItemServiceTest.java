@@ -0,0 +1,91 @@
+package com.renan.auren.services;
+
+import com.renan.auren.domain.entities.Item;
+import com.renan.auren.domain.repositories.ItemRepository;
+import com.renan.auren.infrastructure.cache.CatalogSnapshot;
+import com.renan.auren.infrastructure.cache.ItemCache;
+import com.renan.auren.infrastructure.cache.RedeemCodeCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemServiceTest {
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final RedeemCodeCache redeemCodeCache = new RedeemCodeCache(100, Duration.ofMinutes(10), Duration.ofMinutes(10));
+    private final ItemService itemService = new ItemService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(itemService, "itemRepository", itemRepository);
+        ReflectionTestUtils.setField(itemService, "redeemCodeCache", redeemCodeCache);
+        ReflectionTestUtils.setField(itemService, "catalogSnapshot", mock(CatalogSnapshot.class));
+        ReflectionTestUtils.setField(itemService, "itemCache", new ItemCache(100, Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void missThatRacedWithACreateDoesNotCacheTheStaleNegative() throws Exception {
+        Item created = item("NOVO01");
+        CompletableFuture<Item> staleMiss = new CompletableFuture<>();
+        when(itemRepository.findActiveByRedeemCode("NOVO01"))
+                .thenReturn(staleMiss, CompletableFuture.completedFuture(created));
+        when(itemRepository.save(any(Item.class))).thenReturn(CompletableFuture.completedFuture(created));
+
+        CompletableFuture<Item> inFlight = itemService.getItemByRedeemCodeAsync("novo01");
+        itemService.createItemAsync(created).get();
+        // A busca iniciada antes do cadastro termina depois dele, sem encontrar o item
+        staleMiss.complete(null);
+
+        assertNull(inFlight.get());
+        assertEquals(created, itemService.getItemByRedeemCodeAsync("NOVO01").get());
+        verify(itemRepository, times(2)).findActiveByRedeemCode("NOVO01");
+    }
+
+    @Test
+    void unknownCodesAreCachedWhenNothingChanged() throws Exception {
+        when(itemRepository.findActiveByRedeemCode("NADA01")).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertNull(itemService.getItemByRedeemCodeAsync("NADA01").get());
+        assertNull(itemService.getItemByRedeemCodeAsync("nada01").get());
+
+        verify(itemRepository, times(1)).findActiveByRedeemCode("NADA01");
+    }
+
+    @Test
+    void batchLookupDoesNotCacheNegativesForCodesCreatedMeanwhile() throws Exception {
+        Item created = item("LOTE01");
+        CompletableFuture<Map<String, Item>> staleBatch = new CompletableFuture<>();
+        when(itemRepository.findActiveByRedeemCodes(any())).thenReturn(staleBatch);
+        when(itemRepository.save(any(Item.class))).thenReturn(CompletableFuture.completedFuture(created));
+        when(itemRepository.findActiveByRedeemCode("LOTE01")).thenReturn(CompletableFuture.completedFuture(created));
+
+        CompletableFuture<Map<String, Item>> inFlight = itemService.getItemsByRedeemCodesAsync(List.of("LOTE01"));
+        itemService.createItemAsync(created).get();
+        staleBatch.complete(Map.of());
+
+        assertEquals(Map.of(), inFlight.get());
+        assertEquals(created, itemService.getItemByRedeemCodeAsync("LOTE01").get());
+    }
+
+    private static Item item(String redeemCode) {
+        Item item = new Item();
+        item.setId("id-" + redeemCode);
+        item.setName(redeemCode);
+        item.setRedeemCode(redeemCode);
+        item.setActive(true);
+        return item;
+    }
+}
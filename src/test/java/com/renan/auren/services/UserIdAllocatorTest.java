@@ -0,0 +1,119 @@
+package com.renan.auren.services;
+
+import com.renan.auren.domain.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Repositório simulado: cada reserva devolve o início do próximo bloco, como o contador transacional do Firestore
+class UserIdAllocatorTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AtomicLong counter = new AtomicLong(1);
+
+    private UserIdAllocator allocator(int blockSize) {
+        UserIdAllocator allocator = new UserIdAllocator();
+        ReflectionTestUtils.setField(allocator, "userRepository", userRepository);
+        ReflectionTestUtils.setField(allocator, "blockSize", blockSize);
+        return allocator;
+    }
+
+    @Test
+    void idsAreSequentialAcrossBlocks() throws Exception {
+        when(userRepository.reserveIds(anyInt()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(counter.getAndAdd(invocation.<Integer>getArgument(0))));
+        UserIdAllocator allocator = allocator(3);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(allocator.nextIdAsync().get());
+        }
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), ids);
+        verify(userRepository, times(3)).reserveIds(3);
+    }
+
+    @Test
+    void concurrentCallersGetUniqueIdsAndOneReservationPerBlock() throws Exception {
+        ExecutorService repositoryPool = Executors.newFixedThreadPool(2);
+        // Reserva assíncrona e lenta, para que várias chamadas esperem pelo mesmo bloco
+        when(userRepository.reserveIds(anyInt())).thenAnswer(invocation -> CompletableFuture.supplyAsync(() -> {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return counter.getAndAdd(invocation.<Integer>getArgument(0));
+        }, repositoryPool));
+        UserIdAllocator allocator = allocator(10);
+
+        int threads = 8;
+        int perThread = 250;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    List<CompletableFuture<Long>> pending = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) {
+                        pending.add(allocator.nextIdAsync());
+                    }
+                    for (CompletableFuture<Long> id : pending) {
+                        ids.add(id.get());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+            repositoryPool.shutdownNow();
+        }
+
+        // Nenhum ID repetido, nenhuma lacuna e nenhum bloco reservado à toa
+        Set<Long> expected = LongStream.rangeClosed(1, (long) threads * perThread).boxed().collect(Collectors.toSet());
+        assertEquals(expected, ids);
+        verify(userRepository, times(threads * perThread / 10)).reserveIds(10);
+    }
+
+    @Test
+    void failedReservationIsRetriedByTheNextCall() throws Exception {
+        when(userRepository.reserveIds(anyInt()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("contador indisponível")))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(counter.getAndAdd(invocation.<Integer>getArgument(0))));
+        UserIdAllocator allocator = allocator(5);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> allocator.nextIdAsync().get());
+        assertEquals("contador indisponível", error.getCause().getMessage());
+
+        assertEquals(1L, allocator.nextIdAsync().get());
+        verify(userRepository, times(2)).reserveIds(5);
+    }
+}
@@ -0,0 +1,79 @@
+package com.renan.auren.services;
+
+import com.renan.auren.domain.entities.User;
+import com.renan.auren.domain.repositories.UserRepository;
+import com.renan.auren.infrastructure.cache.UserEmailIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserServiceTest {
+
+    private static final String EMAIL = "bia@auren.dev";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserIdAllocator userIdAllocator = mock(UserIdAllocator.class);
+    private final UserEmailIndex userEmailIndex = new UserEmailIndex(100, Duration.ofHours(1), Duration.ofMinutes(10));
+    private final UserService userService = new UserService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userService, "userIdAllocator", userIdAllocator);
+        ReflectionTestUtils.setField(userService, "userEmailIndex", userEmailIndex);
+        when(userIdAllocator.nextIdAsync()).thenReturn(CompletableFuture.completedFuture(77L));
+        when(userRepository.save(any(User.class))).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void lookupThatRacedWithASignUpDoesNotCacheTheStaleNegative() throws Exception {
+        CompletableFuture<Long> staleLookup = new CompletableFuture<>();
+        when(userRepository.findIdByEmail(EMAIL)).thenReturn(staleLookup);
+        User created = new User(null, "bia", EMAIL, null);
+        when(userRepository.findById(77L)).thenReturn(CompletableFuture.completedFuture(created));
+
+        CompletableFuture<User> inFlight = userService.getUserByEmailAsync(EMAIL);
+        userService.createUserAsync(created).get();
+        // A busca iniciada antes do cadastro termina depois dele, sem encontrar o email
+        staleLookup.complete(null);
+
+        assertNull(inFlight.get());
+        assertEquals(77L, userService.getUserByEmailAsync(EMAIL).get().getId());
+        verify(userRepository, times(1)).findIdByEmail(EMAIL);
+    }
+
+    @Test
+    void unknownEmailIsCachedWhenNothingChanged() throws Exception {
+        when(userRepository.findIdByEmail(EMAIL)).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertNull(userService.getUserByEmailAsync(EMAIL).get());
+        assertNull(userService.getUserByEmailAsync(EMAIL).get());
+
+        verify(userRepository, times(1)).findIdByEmail(EMAIL);
+    }
+
+    @Test
+    void staleIndexEntryFallsBackToTheRepository() throws Exception {
+        userEmailIndex.put(EMAIL, 5L);
+        // O usuário 5 trocou de email; o índice ainda aponta para ele
+        when(userRepository.findById(5L)).thenReturn(CompletableFuture.completedFuture(
+                new User(5L, "antigo", "outro@auren.dev", null)));
+        when(userRepository.findIdByEmail(EMAIL)).thenReturn(CompletableFuture.completedFuture(9L));
+        when(userRepository.findById(9L)).thenReturn(CompletableFuture.completedFuture(
+                new User(9L, "bia", EMAIL, null)));
+
+        assertEquals(9L, userService.getUserByEmailAsync(EMAIL).get().getId());
+        assertEquals(9L, userEmailIndex.get(EMAIL).orElseThrow());
+    }
+}